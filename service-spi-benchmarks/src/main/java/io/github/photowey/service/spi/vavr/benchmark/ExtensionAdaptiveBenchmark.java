@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import io.github.photowey.service.spi.vavr.benchmark.service.ProtocolBenchmarkSPI;
+import io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionAdaptiveBenchmark}
+ * <p>
+ * A call dispatched by a runtime protocol name: looked up through the factory on every call, against the adaptive proxy
+ * given the name or an enum constant, whose handles the proxy resolves once.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionAdaptiveBenchmark {
+
+    private static final String[] PROTOCOLS = {"grpc", "http", "dubbo"};
+    private static final ProtocolBenchmarkSPI.Protocol[] PROTOCOL_CONSTANTS = ProtocolBenchmarkSPI.Protocol.values();
+
+    private ProtocolBenchmarkSPI adaptive;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void warmUp() {
+        ExtensionFactory.creates(ProtocolBenchmarkSPI.class);
+        this.adaptive = ExtensionFactory.adaptive(ProtocolBenchmarkSPI.class);
+    }
+
+    @Benchmark
+    public int createPerCall() {
+        String protocol = this.nextProtocol();
+
+        return ExtensionFactory.create(ProtocolBenchmarkSPI.class, protocol).invoke(protocol, 42);
+    }
+
+    @Benchmark
+    public int adaptive() {
+        return this.adaptive.invoke(this.nextProtocol(), 42);
+    }
+
+    @Benchmark
+    public int adaptiveEnum() {
+        return this.adaptive.invoke(PROTOCOL_CONSTANTS[this.nextIndex()], 42);
+    }
+
+    private String nextProtocol() {
+        return PROTOCOLS[this.nextIndex()];
+    }
+
+    private int nextIndex() {
+        int next = this.next + 1;
+        this.next = next == PROTOCOLS.length ? 0 : next;
+
+        return this.next;
+    }
+}
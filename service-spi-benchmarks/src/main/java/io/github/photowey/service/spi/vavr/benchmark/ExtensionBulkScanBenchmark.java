@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionBulkScanBenchmark}
+ * <p>
+ * Cold {@code ExtensionFactory.creates} over many interfaces, each with one extension in one of many jars, scanning
+ * per interface or, with {@code bulk}, listing {@code META-INF/extensions/} once.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExtensionBulkScanBenchmark {
+
+    private static final String EXTENSION_FACTORY = "io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory";
+
+    @Param({"80"})
+    public int interfaces;
+
+    @Param({"10", "100"})
+    public int jars;
+
+    @Param({"false", "true"})
+    public boolean bulk;
+
+    private Path root;
+    private List<Path> roots;
+
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        System.setProperty("service.spi.bulk.enabled", String.valueOf(this.bulk));
+        this.root = Files.createTempDirectory("service-spi-bulk-scan");
+        this.roots = SyntheticExtensions.jar(SyntheticExtensions.generateSparse(this.root, this.interfaces, this.jars));
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        System.clearProperty("service.spi.bulk.enabled");
+        SyntheticExtensions.delete(this.root);
+    }
+
+    @Setup(Level.Invocation)
+    public void isolate() throws Exception {
+        this.classLoader = SyntheticExtensions.isolatedClassLoader(this.roots);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws Exception {
+        this.classLoader.close();
+    }
+
+    @Benchmark
+    public int createsAll() throws Exception {
+        Class<?> factory = Class.forName(EXTENSION_FACTORY, true, this.classLoader);
+        Method creates = factory.getMethod("creates", Class.class);
+
+        int extensions = 0;
+        for (int i = 0; i < this.interfaces; i++) {
+            Class<?> targetClass = Class.forName(SyntheticExtensions.interfaceName(i), false, this.classLoader);
+            extensions += ((List<?>) creates.invoke(null, targetClass)).size();
+        }
+
+        return extensions;
+    }
+}
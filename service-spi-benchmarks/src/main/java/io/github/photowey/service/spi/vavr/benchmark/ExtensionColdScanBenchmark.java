@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionColdScanBenchmark}
+ * <p>
+ * Cold {@code ExtensionFactory.creates} over one interface whose extensions are spread across a growing number
+ * of {@code META-INF/extensions} files, each on its own classpath root.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExtensionColdScanBenchmark {
+
+    private static final String EXTENSION_FACTORY = "io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory";
+
+    @Param({"1", "10", "100"})
+    public int files;
+
+    @Param({"10"})
+    public int extensionsPerFile;
+
+    private Path root;
+    private List<Path> roots;
+
+    private URLClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        this.root = Files.createTempDirectory("service-spi-cold-scan");
+        this.roots = SyntheticExtensions.generate(this.root, 1, this.files, this.extensionsPerFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws Exception {
+        SyntheticExtensions.delete(this.root);
+    }
+
+    @Setup(Level.Invocation)
+    public void isolate() throws Exception {
+        this.classLoader = SyntheticExtensions.isolatedClassLoader(this.roots);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws Exception {
+        this.classLoader.close();
+    }
+
+    @Benchmark
+    public Object creates() throws Exception {
+        Class<?> factory = Class.forName(EXTENSION_FACTORY, true, this.classLoader);
+        Class<?> targetClass = Class.forName(SyntheticExtensions.interfaceName(0), false, this.classLoader);
+
+        return factory.getMethod("creates", Class.class).invoke(null, targetClass);
+    }
+}
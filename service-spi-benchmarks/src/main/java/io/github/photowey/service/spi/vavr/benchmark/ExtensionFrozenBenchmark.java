@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import io.github.photowey.service.spi.vavr.benchmark.service.PrototypeBenchmarkSPI;
+import io.github.photowey.service.spi.vavr.benchmark.service.SingletonBenchmarkSPI;
+import io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionFrozenBenchmark}
+ * <p>
+ * The lookups of {@link ExtensionFactoryBenchmark}, after {@link ExtensionFactory#freeze()}.
+ * Freezing cannot be undone, so every benchmark runs in its own fork.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionFrozenBenchmark {
+
+    private int secondHandle;
+
+    @Setup(Level.Trial)
+    public void warmUp() {
+        ExtensionFactory.creates(SingletonBenchmarkSPI.class);
+        ExtensionFactory.creates(PrototypeBenchmarkSPI.class);
+        this.secondHandle = ExtensionFactory.indexOf(SingletonBenchmarkSPI.class, "second");
+        ExtensionFactory.freeze();
+    }
+
+    @Benchmark
+    public SingletonBenchmarkSPI createSingleton() {
+        return ExtensionFactory.create(SingletonBenchmarkSPI.class);
+    }
+
+    @Benchmark
+    public SingletonBenchmarkSPI createSingletonByName() {
+        return ExtensionFactory.create(SingletonBenchmarkSPI.class, "second");
+    }
+
+    @Benchmark
+    public SingletonBenchmarkSPI createSingletonByHandle() {
+        return ExtensionFactory.create(SingletonBenchmarkSPI.class, this.secondHandle);
+    }
+
+    @Benchmark
+    public PrototypeBenchmarkSPI createPrototype() {
+        return ExtensionFactory.create(PrototypeBenchmarkSPI.class);
+    }
+
+    @Benchmark
+    public PrototypeBenchmarkSPI createPrototypeByName() {
+        return ExtensionFactory.create(PrototypeBenchmarkSPI.class, "second");
+    }
+
+    @Benchmark
+    public List<SingletonBenchmarkSPI> createsSingletons() {
+        return ExtensionFactory.creates(SingletonBenchmarkSPI.class);
+    }
+
+    @Benchmark
+    public List<PrototypeBenchmarkSPI> createsPrototypes() {
+        return ExtensionFactory.creates(PrototypeBenchmarkSPI.class);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionListing;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionListingBenchmark}
+ * <p>
+ * Parsing a generated listing file of {@code lines} class names: {@code Properties.load} as before, against the
+ * streaming {@link ExtensionListing} parser.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionListingBenchmark {
+
+    @Param({"100", "10000"})
+    public int lines;
+
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        StringBuilder builder = new StringBuilder("# generated\n");
+        for (int i = 0; i < this.lines; i++) {
+            builder.append("io.github.photowey.service.spi.vavr.benchmark.generated.GeneratedExtension").append(i).append('\n');
+        }
+        this.content = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> properties() throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(this.content));
+        List<String> classNames = new ArrayList<>(properties.size());
+        properties.forEach((k, v) -> classNames.add((String) k));
+
+        return classNames;
+    }
+
+    @Benchmark
+    public List<String> listing(final Blackhole blackhole) {
+        List<String> classNames = new ArrayList<>();
+        ExtensionListing.parse(this.content, new ExtensionListing.Visitor() {
+            @Override
+            public void extension(final String name, final String className, final int lineNumber) {
+                classNames.add(className);
+            }
+
+            @Override
+            public void malformed(final String line, final int lineNumber, final String reason) {
+                blackhole.consume(line);
+            }
+        });
+
+        return classNames;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import io.github.photowey.service.spi.vavr.benchmark.service.CodecBenchmarkSPI;
+import io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionLease;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionPooledBenchmark}
+ * <p>
+ * One use of a codec holding a 16 KiB buffer: a new {@code PROTOTYPE} instance per use, against a lease of a
+ * {@code POOLED} one and the instance of the current thread of a {@code THREAD} one. Run with {@code -prof gc}
+ * to compare allocation rates.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtensionPooledBenchmark {
+
+    @Setup(Level.Trial)
+    public void warmUp() {
+        ExtensionFactory.create(CodecBenchmarkSPI.class, "prototype");
+        ExtensionFactory.acquire(CodecBenchmarkSPI.class, "pooled").close();
+        ExtensionFactory.create(CodecBenchmarkSPI.class, "thread");
+    }
+
+    @Benchmark
+    public int createPrototype() {
+        return ExtensionFactory.create(CodecBenchmarkSPI.class, "prototype").encode(42);
+    }
+
+    @Benchmark
+    public int acquirePooled() {
+        try (ExtensionLease<CodecBenchmarkSPI> codec = ExtensionFactory.acquire(CodecBenchmarkSPI.class, "pooled")) {
+            return codec.get().encode(42);
+        }
+    }
+
+    @Benchmark
+    public int createThreadScoped() {
+        return ExtensionFactory.create(CodecBenchmarkSPI.class, "thread").encode(42);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int createPrototypeContended() {
+        return this.createPrototype();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int acquirePooledContended() {
+        return this.acquirePooled();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int createThreadScopedContended() {
+        return this.createThreadScoped();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * {@code SyntheticExtensions}
+ * <p>
+ * Writes synthetic {@code @SPI} interfaces, their implementations and the matching
+ * {@code META-INF/extensions/<interface>} files to disk, one classpath root per extension file.
+ * Classes are emitted directly as minimal class files, so no compiler is needed at benchmark time.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class SyntheticExtensions {
+
+    private static final String PACKAGE = "synthetic";
+    private static final String EXTENSION_DIRECTORY = "META-INF/extensions/";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private SyntheticExtensions() {
+        throw new AssertionError("No " + SyntheticExtensions.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    public static String interfaceName(final int index) {
+        return PACKAGE + ".SyntheticSPI" + index;
+    }
+
+    public static String extensionName(final int interfaceIndex, final int file, final int index) {
+        return PACKAGE + ".SyntheticSPI" + interfaceIndex + "Extension" + file + "_" + index;
+    }
+
+    /**
+     * Generates {@code interfaces} interfaces, each listed in {@code files} extension files of
+     * {@code extensionsPerFile} implementations.
+     *
+     * @return the classpath roots, the interfaces root first
+     */
+    public static List<Path> generate(final Path root, final int interfaces, final int files, final int extensionsPerFile) throws IOException {
+        List<Path> roots = new ArrayList<>(files + 1);
+
+        Path interfacesRoot = Files.createDirectories(root.resolve("interfaces"));
+        for (int i = 0; i < interfaces; i++) {
+            writeClass(interfacesRoot, interfaceName(i), null);
+        }
+        roots.add(interfacesRoot);
+
+        for (int f = 0; f < files; f++) {
+            Path fileRoot = Files.createDirectories(root.resolve("extensions-" + f));
+            Path directory = Files.createDirectories(fileRoot.resolve(EXTENSION_DIRECTORY));
+            for (int i = 0; i < interfaces; i++) {
+                StringBuilder listing = new StringBuilder();
+                for (int e = 0; e < extensionsPerFile; e++) {
+                    String extension = extensionName(i, f, e);
+                    writeClass(fileRoot, extension, interfaceName(i));
+                    listing.append(extension).append('\n');
+                }
+                Files.write(directory.resolve(interfaceName(i)), listing.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            roots.add(fileRoot);
+        }
+
+        return roots;
+    }
+
+    /**
+     * Creates a {@code ClassLoader} holding the synthetic roots plus a private copy of the library, so every
+     * loader gets fresh {@code ExtensionLoader} statics and therefore a cold scan.
+     */
+    /**
+     * Generates interfaces and one extension per interface; interface {@code i} is listed in classpath root {@code i % files} only.
+     */
+    public static List<Path> generateSparse(final Path root, final int interfaces, final int files) throws IOException {
+        List<Path> roots = new ArrayList<>(files + 1);
+
+        Path interfacesRoot = Files.createDirectories(root.resolve("interfaces"));
+        for (int i = 0; i < interfaces; i++) {
+            writeClass(interfacesRoot, interfaceName(i), null);
+        }
+        roots.add(interfacesRoot);
+
+        for (int f = 0; f < files; f++) {
+            Path fileRoot = Files.createDirectories(root.resolve("extensions-" + f));
+            Path directory = Files.createDirectories(fileRoot.resolve(EXTENSION_DIRECTORY));
+            for (int i = f; i < interfaces; i += files) {
+                String extension = extensionName(i, f, 0);
+                writeClass(fileRoot, extension, interfaceName(i));
+                Files.write(directory.resolve(interfaceName(i)), (extension + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            roots.add(fileRoot);
+        }
+
+        return roots;
+    }
+
+    /**
+     * Packs every classpath root directory into a jar next to it, with directory entries as Maven and Gradle write them.
+     */
+    public static List<Path> jar(final List<Path> roots) throws IOException {
+        List<Path> jars = new ArrayList<>(roots.size());
+        for (Path root : roots) {
+            Path jar = root.resolveSibling(root.getFileName() + ".jar");
+            try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+                 Stream<Path> paths = Files.walk(root)) {
+                for (Path path : (Iterable<Path>) paths.sorted()::iterator) {
+                    if (path.equals(root)) {
+                        continue;
+                    }
+
+                    String name = root.relativize(path).toString().replace(File.separatorChar, '/');
+                    if (Files.isDirectory(path)) {
+                        output.putNextEntry(new JarEntry(name + "/"));
+                    } else {
+                        output.putNextEntry(new JarEntry(name));
+                        output.write(Files.readAllBytes(path));
+                    }
+                    output.closeEntry();
+                }
+            }
+            jars.add(jar);
+        }
+
+        return jars;
+    }
+
+    public static URLClassLoader isolatedClassLoader(final List<Path> roots) throws MalformedURLException {
+        List<URL> urls = new ArrayList<>();
+        for (Path path : roots) {
+            urls.add(path.toUri().toURL());
+        }
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(new File(entry).toURI().toURL());
+        }
+
+        return new URLClassLoader(urls.toArray(new URL[0]), null);
+    }
+
+    public static void delete(final Path root) throws IOException {
+        if (null == root || !Files.exists(root)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static void writeClass(final Path root, final String binaryName, final String interfaceName) throws IOException {
+        String internalName = binaryName.replace('.', '/');
+        Path target = root.resolve(internalName + ".class");
+        Files.createDirectories(target.getParent());
+        Files.write(target, null == interfaceName ? interfaceBytes(internalName) : classBytes(internalName, interfaceName.replace('.', '/')));
+    }
+
+    private static byte[] interfaceBytes(final String internalName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        header(out, 5);
+        utf8(out, internalName);              // #1
+        classRef(out, 1);                     // #2
+        utf8(out, "java/lang/Object");        // #3
+        classRef(out, 3);                     // #4
+
+        out.writeShort(ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+        out.writeShort(0); // methods
+        out.writeShort(0); // attributes
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] classBytes(final String internalName, final String interfaceName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        header(out, 12);
+        utf8(out, internalName);              // #1
+        classRef(out, 1);                     // #2
+        utf8(out, "java/lang/Object");        // #3
+        classRef(out, 3);                     // #4
+        utf8(out, interfaceName);             // #5
+        classRef(out, 5);                     // #6
+        utf8(out, "<init>");                  // #7
+        utf8(out, "()V");                     // #8
+        out.writeByte(12);                    // #9 NameAndType
+        out.writeShort(7);
+        out.writeShort(8);
+        out.writeByte(10);                    // #10 Methodref Object.<init>
+        out.writeShort(4);
+        out.writeShort(9);
+        utf8(out, "Code");                    // #11
+
+        out.writeShort(ACC_PUBLIC | ACC_SUPER);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(1);
+        out.writeShort(6);
+        out.writeShort(0); // fields
+
+        out.writeShort(1); // methods
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(7);
+        out.writeShort(8);
+        out.writeShort(1);
+        out.writeShort(11);
+        out.writeInt(17);
+        out.writeShort(1); // max stack
+        out.writeShort(1); // max locals
+        out.writeInt(5);
+        out.writeByte(0x2a); // aload_0
+        out.writeByte(0xb7); // invokespecial #10
+        out.writeShort(10);
+        out.writeByte(0xb1); // return
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+
+        out.writeShort(0); // attributes
+
+        return bytes.toByteArray();
+    }
+
+    private static void header(final DataOutputStream out, final int constantPoolCount) throws IOException {
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+        out.writeShort(constantPoolCount);
+    }
+
+    private static void utf8(final DataOutputStream out, final String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void classRef(final DataOutputStream out, final int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+
+/**
+ * {@code DubboProtocolBenchmarkSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "dubbo", order = 2)
+public class DubboProtocolBenchmarkSPI implements ProtocolBenchmarkSPI {
+
+    @Override
+    public int invoke(final String protocol, final int value) {
+        return value + 3;
+    }
+
+    @Override
+    public int invoke(final Protocol protocol, final int value) {
+        return value + 3;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.benchmark.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+
+/**
+ * {@code FirstSingletonBenchmarkSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "first", order = 0)
+public class FirstSingletonBenchmarkSPI implements SingletonBenchmarkSPI {
+
+    @Override
+    public int value() {
+        return 0;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.processor;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndex;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndexEntry;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionListing;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * {@code ExtensionIndexProcessor}
+ * <p>
+ * Generates {@code META-INF/extensions.index} at compile time.
+ * <p>
+ * Every interface implemented by an {@link SPI} annotated class of the compilation, and every interface of the previous
+ * index, is a candidate; when the compilation output also holds its {@code META-INF/extensions/<interface>} file, all
+ * classes listed there are resolved and their {@link SPI} name, order, scope, groups and activation conditions are
+ * written to the index, together with the fingerprint of the listing file. An interface is left out of the index (and
+ * scanned at runtime as before) if any listed class cannot be resolved at compile time.
+ * <p>
+ * The index is regenerated from the listing files in the final round of every compilation, never merged with the
+ * previous one, so that an incremental build drops the extensions removed since. A listing file edited without any
+ * compilation is caught at runtime by its fingerprint.
+ * <p>
+ * The listing files are looked up in the class output, then in the source path, then in the directories of the
+ * {@code -Aservice.spi.resources=<dir>[<path separator><dir>...]} option. Gradle keeps resources out of both the
+ * class output and the source path, so it needs the option, e.g. {@code -Aservice.spi.resources=src/main/resources}.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(ExtensionIndexProcessor.RESOURCES_OPTION)
+public class ExtensionIndexProcessor extends AbstractProcessor {
+
+    /**
+     * Additional directories holding the {@code META-INF/extensions/<interface>} files, separated by the path separator.
+     */
+    public static final String RESOURCES_OPTION = "service.spi.resources";
+
+    private final Set<String> candidateInterfaces = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(SPI.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                this.collectInterfaces(element.asType(), this.candidateInterfaces);
+            }
+        }
+
+        return false;
+    }
+
+    // ----------------------------------------------------------------
+
+    private void collectInterfaces(final TypeMirror type, final Set<String> interfaces) {
+        for (TypeMirror superType : this.processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+
+            Element element = ((DeclaredType) superType).asElement();
+            if (element.getKind() == ElementKind.INTERFACE) {
+                interfaces.add(this.binaryName((TypeElement) element));
+            }
+
+            this.collectInterfaces(superType, interfaces);
+        }
+    }
+
+    private void writeIndex() {
+        Set<String> previousInterfaces = this.readPreviousInterfaces();
+        Set<String> targetInterfaces = new TreeSet<>(this.candidateInterfaces);
+        if (null != previousInterfaces) {
+            targetInterfaces.addAll(previousInterfaces);
+        }
+
+        List<ExtensionIndexEntry> all = new ArrayList<>();
+        Map<String, String> fingerprints = new TreeMap<>();
+        for (String targetInterface : targetInterfaces) {
+            byte[] listing = this.readExtensionFile(targetInterface);
+            if (null == listing) {
+                continue;
+            }
+
+            List<ExtensionIndexEntry> entries = this.resolveEntries(targetInterface, this.parseExtensionFile(listing, targetInterface));
+            if (null != entries) {
+                all.addAll(entries);
+                fingerprints.put(targetInterface, ExtensionIndex.fingerprint(listing));
+            }
+        }
+
+        // An index left empty still overwrites the previous one.
+        if (all.isEmpty() && null == previousInterfaces) {
+            return;
+        }
+
+        try {
+            FileObject resource = this.processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ExtensionConstants.EXTENSION_INDEX_LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                ExtensionIndex.write(writer, all, fingerprints);
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Write @SPI extension index error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param listed the listed class names, in declaration order, with the name given in the file or {@code null}
+     */
+    private List<ExtensionIndexEntry> resolveEntries(final String targetInterface, final Map<String, String> listed) {
+        List<ExtensionIndexEntry> entries = new ArrayList<>(listed.size());
+        for (Map.Entry<String, String> extension : listed.entrySet()) {
+            String className = extension.getKey();
+            TypeElement element = this.processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+            if (null == element) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "@SPI extension class: " + className + " is not resolvable at compile time, "
+                                + targetInterface + " will be scanned at runtime");
+                return null;
+            }
+
+            String binaryName = this.binaryName(element);
+            SPI spi = element.getAnnotation(SPI.class);
+            String name = extension.getValue();
+            if (null != spi) {
+                entries.add(new ExtensionIndexEntry(targetInterface, null != name ? name : spi.value(), spi.order(), spi.scope(), binaryName, ExtensionCondition.of(spi)));
+            } else {
+                entries.add(new ExtensionIndexEntry(targetInterface, null != name ? name : binaryName, 0, Scoped.SINGLETON, binaryName));
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * @return the content of the listing file, {@code null} if no listing file of the interface is found
+     */
+    private byte[] readExtensionFile(final String targetInterface) {
+        String location = ExtensionConstants.EXTENSION_DIRECTORY + targetInterface;
+        for (StandardLocation resourceLocation : new StandardLocation[]{StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_PATH}) {
+            try {
+                FileObject resource = this.processingEnv.getFiler().getResource(resourceLocation, "", location);
+                try (InputStream input = resource.openInputStream()) {
+                    return this.readAll(input);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Not in this location.
+            }
+        }
+
+        String directories = this.processingEnv.getOptions().get(RESOURCES_OPTION);
+        if (null != directories) {
+            for (String directory : directories.split(File.pathSeparator)) {
+                if (directory.trim().isEmpty()) {
+                    continue;
+                }
+
+                Path path = Paths.get(directory.trim()).resolve(location);
+                if (Files.isRegularFile(path)) {
+                    try (InputStream input = Files.newInputStream(path)) {
+                        return this.readAll(input);
+                    } catch (IOException e) {
+                        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                "Read @SPI extension file: " + path + " error: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private byte[] readAll(final InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, read);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Map<String, String> parseExtensionFile(final byte[] listing, final String targetInterface) {
+        String location = ExtensionConstants.EXTENSION_DIRECTORY + targetInterface;
+        Map<String, String> listed = new LinkedHashMap<>();
+        try {
+            this.parseExtensionFile(new ByteArrayInputStream(listing), location, listed);
+        } catch (IOException e) {
+            // Not thrown by an in-memory listing.
+        }
+
+        return listed;
+    }
+
+    private void parseExtensionFile(final InputStream input, final String location, final Map<String, String> listed) throws IOException {
+        ExtensionListing.parse(input, new ExtensionListing.Visitor() {
+            @Override
+            public void extension(final String name, final String className, final int lineNumber) {
+                if (!listed.containsKey(className)) {
+                    listed.put(className, name);
+                }
+            }
+
+            @Override
+            public void malformed(final String line, final int lineNumber, final String reason) {
+                ExtensionIndexProcessor.this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Malformed @SPI extension line: " + line + " at " + location + ":" + lineNumber + ", " + reason);
+            }
+        });
+    }
+
+    /**
+     * @return the interfaces of the index left in the class output by a previous build, {@code null} if there is none
+     */
+    private Set<String> readPreviousInterfaces() {
+        try {
+            FileObject resource = this.processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ExtensionConstants.EXTENSION_INDEX_LOCATION);
+            try (Reader reader = resource.openReader(true)) {
+                Set<String> interfaces = new TreeSet<>();
+                for (ExtensionIndexEntry entry : ExtensionIndex.read(reader)) {
+                    interfaces.add(entry.getTargetInterface());
+                }
+
+                return interfaces;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index, a full build.
+            return null;
+        }
+    }
+
+    private String binaryName(final TypeElement element) {
+        return this.processingEnv.getElementUtils().getBinaryName(element).toString();
+    }
+}
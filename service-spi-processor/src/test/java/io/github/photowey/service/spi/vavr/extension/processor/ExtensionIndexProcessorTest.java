@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.processor;
+
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndex;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndexEntry;
+import io.github.photowey.service.spi.vavr.extension.processor.service.DefaultIndexedTestSPI;
+import io.github.photowey.service.spi.vavr.extension.processor.service.IndexedTestSPI;
+import io.github.photowey.service.spi.vavr.extension.processor.service.RpcIndexedTestSPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@code ExtensionIndexProcessorTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionIndexProcessorTest {
+
+    @Test
+    public void testLookupGeneratedIndex() {
+        List<ExtensionIndexEntry> entries = ExtensionIndex.lookup(IndexedTestSPI.class.getName(), ClassLoader.getSystemClassLoader());
+        Assertions.assertEquals(2, entries.size());
+
+        Assertions.assertEquals("default", entries.get(0).getName());
+        Assertions.assertEquals(DefaultIndexedTestSPI.class.getName(), entries.get(0).getClassName());
+        Assertions.assertEquals(Scoped.SINGLETON, entries.get(0).getScope());
+        Assertions.assertSame(ExtensionCondition.NONE, entries.get(0).getCondition());
+
+        ExtensionCondition condition = entries.get(1).getCondition();
+        Assertions.assertEquals(RpcIndexedTestSPI.class.getName(), entries.get(1).getClassName());
+        Assertions.assertEquals(1, entries.get(1).getOrder());
+        Assertions.assertEquals(Arrays.asList("web", "rpc"), condition.getGroups());
+        Assertions.assertEquals(Collections.singletonList("java.util.concurrent.CompletableFuture"), condition.getClasses());
+    }
+
+    @Test
+    public void testProcessorReadsResourcesOption() throws IOException {
+        Path root = Files.createTempDirectory("service-spi-processor");
+        try {
+            Path source = writeSource(root, "GradleExtension", "@io.github.photowey.service.spi.vavr.core.annotation.SPI(\"gradle\")\n"
+                    + "public class GradleExtension implements Runnable { public void run() { } }\n");
+            Path resources = root.resolve("resources");
+            byte[] listing = "demo.GradleExtension\n".getBytes(StandardCharsets.UTF_8);
+            writeListing(resources, listing);
+            Path classes = Files.createDirectories(root.resolve("classes"));
+
+            Assertions.assertEquals(0, compile(resources, classes, source));
+
+            Map<String, String> fingerprints = new HashMap<>();
+            Assertions.assertEquals(Collections.singletonList(new ExtensionIndexEntry("java.lang.Runnable", "gradle", 0, Scoped.SINGLETON, "demo.GradleExtension")),
+                    readIndex(classes, fingerprints));
+            Assertions.assertEquals(Collections.singletonMap("java.lang.Runnable", ExtensionIndex.fingerprint(listing)), fingerprints);
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testIncrementalBuildRegeneratesIndex() throws IOException {
+        Path root = Files.createTempDirectory("service-spi-processor");
+        try {
+            Path first = writeSource(root, "FirstExtension", "@io.github.photowey.service.spi.vavr.core.annotation.SPI(\"first\")\n"
+                    + "public class FirstExtension implements Runnable { public void run() { } }\n");
+            Path second = writeSource(root, "SecondExtension", "@io.github.photowey.service.spi.vavr.core.annotation.SPI(\"second\")\n"
+                    + "public class SecondExtension implements Runnable { public void run() { } }\n");
+            Path resources = root.resolve("resources");
+            writeListing(resources, "demo.FirstExtension\ndemo.SecondExtension\n".getBytes(StandardCharsets.UTF_8));
+            Path classes = Files.createDirectories(root.resolve("classes"));
+            Assertions.assertEquals(0, compile(resources, classes, first, second));
+            Assertions.assertEquals(2, readIndex(classes, new HashMap<>()).size());
+
+            // Only the listing and an unrelated class change, no @SPI class is compiled again.
+            byte[] listing = "demo.FirstExtension\n".getBytes(StandardCharsets.UTF_8);
+            writeListing(resources, listing);
+            Path other = writeSource(root, "Other", "public class Other { }\n");
+            Assertions.assertEquals(0, compile(resources, classes, other));
+
+            Map<String, String> fingerprints = new HashMap<>();
+            Assertions.assertEquals(Collections.singletonList(new ExtensionIndexEntry("java.lang.Runnable", "first", 0, Scoped.SINGLETON, "demo.FirstExtension")),
+                    readIndex(classes, fingerprints));
+            Assertions.assertEquals(ExtensionIndex.fingerprint(listing), fingerprints.get("java.lang.Runnable"));
+        } finally {
+            delete(root);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static Path writeSource(final Path root, final String name, final String body) throws IOException {
+        Path source = root.resolve("src/demo/" + name + ".java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, ("package demo;\n" + body).getBytes(StandardCharsets.UTF_8));
+
+        return source;
+    }
+
+    private static void writeListing(final Path resources, final byte[] listing) throws IOException {
+        Path path = resources.resolve("META-INF/extensions/java.lang.Runnable");
+        Files.createDirectories(path.getParent());
+        Files.write(path, listing);
+    }
+
+    private static int compile(final Path resources, final Path classes, final Path... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-classpath", System.getProperty("java.class.path") + File.pathSeparator + classes,
+                "-processor", ExtensionIndexProcessor.class.getName(),
+                "-A" + ExtensionIndexProcessor.RESOURCES_OPTION + "=" + resources,
+                "-d", classes.toString()));
+        for (Path source : sources) {
+            arguments.add(source.toString());
+        }
+
+        return compiler.run(null, null, null, arguments.toArray(new String[0]));
+    }
+
+    private static List<ExtensionIndexEntry> readIndex(final Path classes, final Map<String, String> fingerprints) throws IOException {
+        Path index = classes.resolve("META-INF/extensions.index");
+        Assertions.assertTrue(Files.exists(index));
+        try (Reader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            return ExtensionIndex.read(reader, fingerprints);
+        }
+    }
+
+    private static void delete(final Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * {@code Adaptive}
+ * <p>
+ * Marks a method of an extension interface as dispatched by the proxy of {@code ExtensionFactory.adaptive}: each call
+ * is forwarded to the extension named by one of its arguments.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Adaptive {
+
+    /**
+     * The index of the argument naming the extension; its {@code toString()} is the name.
+     */
+    int value() default 0;
+
+    /**
+     * The extension used when the argument is {@code null}; when empty, the default extension (lowest order).
+     */
+    String defaultName() default "";
+}
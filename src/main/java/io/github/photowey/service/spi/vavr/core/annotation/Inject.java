@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * {@code Inject}
+ * <p>
+ * Injects other extensions into an extension when the loader creates it. On a constructor, it is the constructor the
+ * loader calls, with one extension per parameter; on a public method, a setter called with one extension once the
+ * instance is constructed, before {@code start()} and {@code init()}; on a constructor parameter, it names the extension.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@Documented
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Inject {
+
+    /**
+     * The name of the injected extension, for a setter or a constructor parameter; when empty, the default extension
+     * (lowest order). Unused on a constructor.
+     */
+    String value() default "";
+}
@@ -37,4 +37,34 @@ public @interface SPI {
     int order() default 0;
 
     Scoped scope() default Scoped.SINGLETON;
+
+    /**
+     * The maximum number of idle instances kept by a {@link Scoped#POOLED} extension.
+     */
+    int poolSize() default 16;
+
+    /**
+     * The name of the {@code ExtensionScope} keeping the instances of a {@link Scoped#CUSTOM} extension.
+     */
+    String customScope() default "";
+
+    /**
+     * The groups the extension belongs to, as selected by {@code ExtensionFactory.creates(Class, String)}.
+     */
+    String[] group() default {};
+
+    /**
+     * Registers the extension only while one of these tags is listed in {@code -Dservice.spi.tags}.
+     */
+    String[] tag() default {};
+
+    /**
+     * Registers the extension only while every system property is set: {@code "key"}, or {@code "key=value"} for a value.
+     */
+    String[] conditionalOnProperty() default {};
+
+    /**
+     * Registers the extension only while every class is present; the classes are not loaded to find out.
+     */
+    String[] conditionalOnClass() default {};
 }
\ No newline at end of file
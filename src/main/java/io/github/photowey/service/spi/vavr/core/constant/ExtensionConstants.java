@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.core.constant;
+
+/**
+ * {@code ExtensionConstants}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionConstants {
+
+    public static final String EXTENSION_DIRECTORY = "META-INF/extensions/";
+
+    public static final String EXTENSION_INDEX_LOCATION = "META-INF/extensions.index";
+
+    private ExtensionConstants() {
+        throw new AssertionError("No " + ExtensionConstants.class.getName() + " instances for you!");
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.core.domain.entity;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * {@code ExtensionCondition}
+ * <p>
+ * The groups and activation conditions of an extension, read from {@link SPI} or from the extension index.
+ * An extension is active while at least one of its tags is listed in {@code -Dservice.spi.tags} (or it has none),
+ * every required system property is set ({@code key}) or has the required value ({@code key=value}), and every
+ * required class is present in the {@code ClassLoader}. Required classes are looked up as resources, never loaded.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionCondition implements Serializable {
+
+    private static final long serialVersionUID = 6513320791462470237L;
+
+    public static final ExtensionCondition NONE = new ExtensionCondition(
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> groups;
+    private final List<String> tags;
+    private final List<String> properties;
+    private final List<String> classes;
+
+    private ExtensionCondition(final List<String> groups, final List<String> tags, final List<String> properties, final List<String> classes) {
+        this.groups = groups;
+        this.tags = tags;
+        this.properties = properties;
+        this.classes = classes;
+    }
+
+    public static ExtensionCondition of(final SPI spi) {
+        return of(Arrays.asList(spi.group()), Arrays.asList(spi.tag()),
+                Arrays.asList(spi.conditionalOnProperty()), Arrays.asList(spi.conditionalOnClass()));
+    }
+
+    public static ExtensionCondition of(final List<String> groups, final List<String> tags, final List<String> properties, final List<String> classes) {
+        if (groups.isEmpty() && tags.isEmpty() && properties.isEmpty() && classes.isEmpty()) {
+            return NONE;
+        }
+
+        return new ExtensionCondition(copyOf(groups), copyOf(tags), copyOf(properties), copyOf(classes));
+    }
+
+    public List<String> getGroups() {
+        return this.groups;
+    }
+
+    public List<String> getTags() {
+        return this.tags;
+    }
+
+    public List<String> getProperties() {
+        return this.properties;
+    }
+
+    public List<String> getClasses() {
+        return this.classes;
+    }
+
+    // ----------------------------------------------------------------
+
+    public boolean inGroup(final String group) {
+        return this.groups.contains(group);
+    }
+
+    /**
+     * @return {@code true} if the extension is active in the current environment, as seen through the {@code ClassLoader}
+     */
+    public boolean matches(final ClassLoader loader) {
+        return this.matchesTags() && this.matchesProperties() && this.matchesClasses(loader);
+    }
+
+    private boolean matchesTags() {
+        if (this.tags.isEmpty()) {
+            return true;
+        }
+
+        Set<String> activeTags = ExtensionProperties.tags();
+        for (String tag : this.tags) {
+            if (activeTags.contains(tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matchesProperties() {
+        for (String property : this.properties) {
+            int separator = property.indexOf('=');
+            String key = separator < 0 ? property : property.substring(0, separator);
+            String value = System.getProperty(key.trim());
+            if (null == value || (separator >= 0 && !property.substring(separator + 1).trim().equals(value.trim()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean matchesClasses(final ClassLoader loader) {
+        ClassLoader classLoader = null != loader ? loader : ClassLoader.getSystemClassLoader();
+        for (String className : this.classes) {
+            if (null == classLoader.getResource(className.replace('.', '/') + ".class")) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static List<String> copyOf(final List<String> values) {
+        return values.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExtensionCondition)) return false;
+        ExtensionCondition that = (ExtensionCondition) o;
+        return getGroups().equals(that.getGroups())
+                && getTags().equals(that.getTags())
+                && getProperties().equals(that.getProperties())
+                && getClasses().equals(that.getClasses());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getGroups(), getTags(), getProperties(), getClasses());
+    }
+
+    @Override
+    public String toString() {
+        return "ExtensionCondition(groups=" + this.groups + ", tags=" + this.tags + ", properties=" + this.properties + ", classes=" + this.classes + ")";
+    }
+}
@@ -18,6 +18,7 @@ package io.github.photowey.service.spi.vavr.core.domain.entity;
 import io.github.photowey.service.spi.vavr.core.enums.Scoped;
 
 import java.io.Serializable;
+import java.net.URL;
 import java.util.Objects;
 
 /**
@@ -35,6 +36,9 @@ public class ExtensionEntity implements Serializable {
     private Class<?> targetClass;
     private Integer order;
     private Scoped scope;
+    private String className;
+    private URL source;
+    private ExtensionCondition condition;
 
     public static ExtensionEntityBuilder builder() {
         return new ExtensionEntityBuilder();
@@ -56,6 +60,18 @@ public class ExtensionEntity implements Serializable {
         return this.scope;
     }
 
+    public String getClassName() {
+        return this.className;
+    }
+
+    public URL getSource() {
+        return this.source;
+    }
+
+    public ExtensionCondition getCondition() {
+        return this.condition;
+    }
+
     public void setName(final String name) {
         this.name = name;
     }
@@ -72,6 +88,18 @@ public class ExtensionEntity implements Serializable {
         this.scope = scope;
     }
 
+    public void setClassName(final String className) {
+        this.className = className;
+    }
+
+    public void setSource(final URL source) {
+        this.source = source;
+    }
+
+    public void setCondition(final ExtensionCondition condition) {
+        this.condition = condition;
+    }
+
     public ExtensionEntity() {
     }
 
@@ -80,6 +108,23 @@ public class ExtensionEntity implements Serializable {
         this.targetClass = targetClass;
         this.order = order;
         this.scope = scope;
+        if (null != targetClass) {
+            this.className = targetClass.getName();
+        }
+    }
+
+    public ExtensionEntity(final String name, final Class<?> targetClass, final Integer order, final Scoped scope, final String className, final URL source) {
+        this.name = name;
+        this.targetClass = targetClass;
+        this.order = order;
+        this.scope = scope;
+        this.className = null != className || null == targetClass ? className : targetClass.getName();
+        this.source = source;
+    }
+
+    public ExtensionEntity(final String name, final Class<?> targetClass, final Integer order, final Scoped scope, final String className, final URL source, final ExtensionCondition condition) {
+        this(name, targetClass, order, scope, className, source);
+        this.condition = condition;
     }
 
     @Override
@@ -90,12 +135,18 @@ public class ExtensionEntity implements Serializable {
         return Objects.equals(getName(), that.getName())
                 && Objects.equals(getTargetClass(), that.getTargetClass())
                 && Objects.equals(getOrder(), that.getOrder())
-                && getScope() == that.getScope();
+                && getScope() == that.getScope()
+                && Objects.equals(getClassName(), that.getClassName());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getName(), getTargetClass(), getOrder(), getScope());
+        return Objects.hash(getName(), getTargetClass(), getOrder(), getScope(), getClassName());
+    }
+
+    @Override
+    public String toString() {
+        return "ExtensionEntity(name=" + this.name + ", className=" + this.className + ", order=" + this.order + ", scope=" + this.scope + ", source=" + this.source + ", condition=" + this.condition + ")";
     }
 
     public static class ExtensionEntityBuilder {
@@ -104,6 +155,9 @@ public class ExtensionEntity implements Serializable {
         private Class<?> targetClass;
         private Integer order;
         private Scoped scope;
+        private String className;
+        private URL source;
+        private ExtensionCondition condition;
 
         ExtensionEntityBuilder() {
         }
@@ -128,12 +182,27 @@ public class ExtensionEntity implements Serializable {
             return this;
         }
 
+        public ExtensionEntityBuilder className(final String className) {
+            this.className = className;
+            return this;
+        }
+
+        public ExtensionEntityBuilder source(final URL source) {
+            this.source = source;
+            return this;
+        }
+
+        public ExtensionEntityBuilder condition(final ExtensionCondition condition) {
+            this.condition = condition;
+            return this;
+        }
+
         public ExtensionEntity build() {
-            return new ExtensionEntity(this.name, this.targetClass, this.order, this.scope);
+            return new ExtensionEntity(this.name, this.targetClass, this.order, this.scope, this.className, this.source, this.condition);
         }
 
         public String toString() {
-            return "ExtensionEntity.ExtensionEntityBuilder(name=" + this.name + ", targetClass=" + this.targetClass + ", order=" + this.order + ", scope=" + this.scope + ")";
+            return "ExtensionEntity.ExtensionEntityBuilder(name=" + this.name + ", targetClass=" + this.targetClass + ", order=" + this.order + ", scope=" + this.scope + ", className=" + this.className + ", source=" + this.source + ", condition=" + this.condition + ")";
         }
     }
 }
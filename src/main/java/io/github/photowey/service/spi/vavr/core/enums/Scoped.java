@@ -28,5 +28,20 @@ public enum Scoped {
 
     PROTOTYPE,
 
+    /**
+     * Instances are taken from and returned to a bounded pool, see {@code ExtensionFactory.acquire}.
+     */
+    POOLED,
+
+    /**
+     * One instance per thread.
+     */
+    THREAD,
+
+    /**
+     * Instances are kept by the {@code ExtensionScope} named by {@code @SPI(customScope)}.
+     */
+    CUSTOM,
+
     ;
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.core.property;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@code ExtensionProperties}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionProperties {
+
+    /**
+     * Whether the build-time {@code META-INF/extensions.index} is consulted before scanning.
+     */
+    public static final String INDEX_ENABLED = "service.spi.index.enabled";
+
+    /**
+     * Whether an indexed interface also scans the listing files no index covers, those of jars built without the processor.
+     */
+    public static final String INDEX_FALLBACK = "service.spi.index.fallback";
+
+    /**
+     * Whether {@code META-INF/extensions/} is listed once per {@code ClassLoader} instead of looked up per interface.
+     */
+    public static final String BULK_ENABLED = "service.spi.bulk.enabled";
+
+    /**
+     * Whether scanning only records extension descriptors and defers loading each class until it is requested.
+     */
+    public static final String LAZY_ENABLED = "service.spi.lazy.enabled";
+
+    /**
+     * The number of threads reading listing files and loading classes while scanning; 1 (the default) scans serially.
+     */
+    public static final String DISCOVERY_PARALLELISM = "service.spi.discovery.parallelism";
+
+    /**
+     * The number of threads used by {@code ExtensionFactory.preload} when no executor is given; defaults to the processor count.
+     */
+    public static final String PRELOAD_PARALLELISM = "service.spi.preload.parallelism";
+
+    /**
+     * How long, in milliseconds, {@code ExtensionFactory.stop()} waits for the {@code stop()} of a single extension.
+     */
+    public static final String STOP_TIMEOUT = "service.spi.stop.timeout.millis";
+
+    /**
+     * How long, in milliseconds, {@code ExtensionFactory.stop()} waits for all extensions to stop.
+     */
+    public static final String SHUTDOWN_TIMEOUT = "service.spi.shutdown.timeout.millis";
+
+    /**
+     * The directory of the persistent scan cache; the cache is disabled while unset.
+     */
+    public static final String CACHE_DIR = "service.spi.cache.dir";
+
+    /**
+     * The comma-separated active tags; an extension declaring {@code @SPI(tag = ...)} is only registered while one is active.
+     */
+    public static final String TAGS = "service.spi.tags";
+
+    /**
+     * Whether the dependency graph of every active extension is walked once a scan completes, reporting invalid
+     * {@code @Inject} points and cycles before any instance is created. Enabled by default.
+     */
+    public static final String INJECT_VERIFY = "service.spi.inject.verify";
+
+    private ExtensionProperties() {
+        throw new AssertionError("No " + ExtensionProperties.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    public static boolean indexEnabled() {
+        return getBoolean(INDEX_ENABLED, true);
+    }
+
+    public static boolean indexFallback() {
+        return getBoolean(INDEX_FALLBACK, false);
+    }
+
+    public static boolean bulkEnabled() {
+        return getBoolean(BULK_ENABLED, false);
+    }
+
+    public static boolean lazyEnabled() {
+        return getBoolean(LAZY_ENABLED, false);
+    }
+
+    public static boolean injectVerify() {
+        return getBoolean(INJECT_VERIFY, true);
+    }
+
+    public static int discoveryParallelism() {
+        return (int) getLong(DISCOVERY_PARALLELISM, 1L);
+    }
+
+    public static int preloadParallelism() {
+        return (int) getLong(PRELOAD_PARALLELISM, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Duration stopTimeout() {
+        return Duration.ofMillis(getLong(STOP_TIMEOUT, 10_000L));
+    }
+
+    public static Duration shutdownTimeout() {
+        return Duration.ofMillis(getLong(SHUTDOWN_TIMEOUT, 25_000L));
+    }
+
+    public static String cacheDirectory() {
+        String value = System.getProperty(CACHE_DIR);
+
+        return null == value || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    public static Set<String> tags() {
+        String value = System.getProperty(TAGS);
+        if (null == value || value.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> tags = new HashSet<>();
+        for (String tag : value.split(",")) {
+            if (!tag.trim().isEmpty()) {
+                tags.add(tag.trim());
+            }
+        }
+
+        return tags;
+    }
+
+    // ----------------------------------------------------------------
+
+    private static long getLong(final String key, final long defaultValue) {
+        String value = System.getProperty(key);
+        if (null == value || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            long parsed = Long.parseLong(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static boolean getBoolean(final String key, final boolean defaultValue) {
+        String value = System.getProperty(key);
+        if (null == value || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+}
@@ -15,10 +15,29 @@
  */
 package io.github.photowey.service.spi.vavr.extension.factory;
 
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleRecord;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleReport;
 import io.github.photowey.service.spi.vavr.extension.loader.ExtensionLoader;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionLease;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * {@code ExtensionFactory}
@@ -29,6 +48,12 @@ import java.util.Map;
  */
 public final class ExtensionFactory {
 
+    /**
+     * The default executor of the asynchronous lookups, created on first use and shut down when all extensions stop.
+     */
+    private static volatile ExecutorService asyncExecutor;
+    private static final ReentrantLock ASYNC_EXECUTOR_LOCK = new ReentrantLock();
+
     private ExtensionFactory() {
         throw new AssertionError("No " + ExtensionFactory.class.getName() + " instances for you!");
     }
@@ -41,16 +66,149 @@ public final class ExtensionFactory {
 
     // ----------------------------------------------------------------
 
+    /**
+     * Seals all extension loaders once startup is complete: every singleton of every interface used so far is created
+     * and lookups are served from immutable tables. Afterward, using a new interface or {@code ClassLoader}, or
+     * releasing one, fails with an {@link IllegalStateException}.
+     */
+    public static void freeze() {
+        ExtensionLoaderFactory.freeze();
+    }
+
+    public static boolean isFrozen() {
+        return ExtensionLoaderFactory.isFrozen();
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Creates and initializes all singleton extensions of the given interfaces (all known interfaces when none given)
+     * in parallel, on {@code service.spi.preload.parallelism} threads, and waits for them.
+     */
+    public static ExtensionLifeCycleReport preload(final Class<?>... targetClasses) {
+        ExecutorService executor = Executors.newFixedThreadPool(ExtensionProperties.preloadParallelism(), new LifeCycleThreadFactory("service-spi-preload-"));
+        try {
+            return preload(executor, targetClasses);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates and initializes all singleton extensions of the given interfaces (all known interfaces when none given)
+     * on the executor and waits for them. Within one interface, a lower {@code @SPI(order)} completes before a higher one starts.
+     */
+    public static ExtensionLifeCycleReport preload(final Executor executor, final Class<?>... targetClasses) {
+        long start = System.nanoTime();
+        Collection<? extends ExtensionLoader<?>> loaders = 0 == targetClasses.length
+                ? new ArrayList<>(createLoaders().values())
+                : createLoaders(targetClasses);
+
+        List<CompletableFuture<ExtensionLifeCycleRecord>> futures = new ArrayList<>();
+        for (ExtensionLoader<?> loader : loaders) {
+            futures.addAll(loader.preload(executor, determineClassLoader()));
+        }
+
+        List<ExtensionLifeCycleRecord> records = new ArrayList<>(futures.size());
+        for (CompletableFuture<ExtensionLifeCycleRecord> future : futures) {
+            records.add(future.join());
+        }
+
+        return new ExtensionLifeCycleReport(records, System.nanoTime() - start);
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Stops all extensions, bounded by {@code service.spi.stop.timeout.millis} per extension and
+     * {@code service.spi.shutdown.timeout.millis} overall.
+     *
+     * @see #stop(Duration, Duration, Class[])
+     */
     public static void stop() {
-        Map<Class<?>, ExtensionLoader<?>> loaders = createLoaders();
-        loaders.forEach((key, loader) -> loader.stop());
+        stop(ExtensionProperties.stopTimeout(), ExtensionProperties.shutdownTimeout());
+    }
+
+    /**
+     * Stops the {@code LifeCycle} singletons of the given interfaces (all known interfaces when none given).
+     * <p>
+     * Each interface stops its extensions in reverse {@code @SPI(order)}, and interfaces stop in parallel.
+     * An extension still running {@code stop()} after {@code timeout} is interrupted and recorded as timed out;
+     * after {@code globalTimeout} the remaining extensions are skipped and recorded as timed out as well.
+     * Stopping all interfaces also shuts the default executor of {@link #createAsync(Class)} down, letting the lookups in
+     * flight complete; a later asynchronous lookup starts a new one.
+     */
+    public static ExtensionLifeCycleReport stop(final Duration timeout, final Duration globalTimeout, final Class<?>... targetClasses) {
+        long start = System.nanoTime();
+        long timeoutNanos = timeout.toNanos();
+        long deadlineNanos = start + globalTimeout.toNanos();
+        Collection<? extends ExtensionLoader<?>> loaders = 0 == targetClasses.length
+                ? new ArrayList<>(createLoaders().values())
+                : createLoaders(targetClasses);
+
+        ExecutorService executor = Executors.newCachedThreadPool(new LifeCycleThreadFactory("service-spi-shutdown-"));
+        try {
+            List<CompletableFuture<List<ExtensionLifeCycleRecord>>> futures = new ArrayList<>(loaders.size());
+            for (ExtensionLoader<?> loader : loaders) {
+                futures.add(CompletableFuture.supplyAsync(() -> loader.stop(executor, timeoutNanos, deadlineNanos), executor));
+            }
+
+            List<ExtensionLifeCycleRecord> records = new ArrayList<>();
+            for (CompletableFuture<List<ExtensionLifeCycleRecord>> future : futures) {
+                records.addAll(future.join());
+            }
+
+            return new ExtensionLifeCycleReport(records, System.nanoTime() - start);
+        } finally {
+            executor.shutdown();
+            if (0 == targetClasses.length) {
+                shutdownAsyncExecutor();
+            }
+        }
     }
 
+    /**
+     * Stops the extensions of one interface, bounded like {@link #stop()}.
+     *
+     * @see #stopWithReport(Class)
+     */
     public static <T> void stop(final Class<T> ext) {
-        ExtensionLoader<T> loader = createLoader(ext);
-        if (null != loader) {
-            loader.stop();
+        stopWithReport(ext);
+    }
+
+    /**
+     * Stops the extensions of one interface, bounded like {@link #stop()}, and reports the extensions that timed out.
+     *
+     * @see #stop(Duration, Duration, Class[])
+     */
+    public static <T> ExtensionLifeCycleReport stopWithReport(final Class<T> ext) {
+        return stop(ExtensionProperties.stopTimeout(), ExtensionProperties.shutdownTimeout(), ext);
+    }
+
+    /**
+     * Rescans {@code META-INF/extensions/} for the given interfaces (all known interfaces when none given).
+     *
+     * @return the interfaces whose extensions were added or removed
+     * @see ExtensionLoader#reload(ClassLoader)
+     */
+    public static Set<Class<?>> reload(final Class<?>... targetClasses) {
+        Collection<? extends ExtensionLoader<?>> loaders = 0 == targetClasses.length
+                ? new ArrayList<>(createLoaders().values())
+                : createLoaders(targetClasses);
+
+        Set<Class<?>> reloaded = new LinkedHashSet<>();
+        for (ExtensionLoader<?> loader : loaders) {
+            if (loader.reload(determineClassLoader())) {
+                reloaded.add(loader.getTargetClass());
+            }
         }
+
+        return reloaded;
+    }
+
+    public static void release(final ClassLoader classLoader) {
+        Map<Class<?>, ExtensionLoader<?>> loaders = createLoaders();
+        loaders.forEach((key, loader) -> loader.release(classLoader));
     }
 
     // ----------------------------------------------------------------
@@ -75,12 +233,125 @@ public final class ExtensionFactory {
         return createLoader(targetClass).load(name, types, args, determineClassLoader());
     }
 
+    /**
+     * Creates a proxy of the interface that forwards each call of an {@code @Adaptive} method to the extension named by
+     * the selected argument, through a dispatch table computed once, instead of a factory lookup per call.
+     *
+     * <pre>{@code
+     * Protocol protocol = ExtensionFactory.adaptive(Protocol.class);
+     * protocol.export("grpc", service); // ExtensionFactory.create(Protocol.class, "grpc").export("grpc", service)
+     * }</pre>
+     */
+    public static <T> T adaptive(final Class<T> targetClass) {
+        return createLoader(targetClass).adaptive(determineClassLoader());
+    }
+
+    /**
+     * Takes an idle instance of a {@code @SPI(scope = Scoped.POOLED)} extension from its pool, or creates one;
+     * closing the lease returns it.
+     *
+     * <pre>{@code
+     * try (ExtensionLease<Codec> codec = ExtensionFactory.acquire(Codec.class, "json")) {
+     *     codec.get().encode(message);
+     * }
+     * }</pre>
+     */
+    public static <T> ExtensionLease<T> acquire(final Class<T> targetClass, final String name) {
+        return createLoader(targetClass).acquire(name, determineClassLoader());
+    }
+
+    /**
+     * @return the handle of the named extension for {@link #create(Class, int)}, or {@code -1} if there is none
+     */
+    public static <T> int indexOf(final Class<T> targetClass, final String name) {
+        return createLoader(targetClass).indexOf(name, determineClassLoader());
+    }
+
+    public static <T> T create(final Class<T> targetClass, final int handle) {
+        return createLoader(targetClass).get(handle, determineClassLoader());
+    }
+
     public static <T> List<T> creates(final Class<T> targetClass) {
         return createLoader(targetClass).loads(determineClassLoader());
     }
 
+    /**
+     * The extensions declaring the group in {@code @SPI(group = ...)}, sorted by order. Members are selected once;
+     * extensions outside the group are not instantiated, and extensions whose activation conditions do not match are
+     * never registered at all.
+     */
+    public static <T> List<T> creates(final Class<T> targetClass, final String group) {
+        return createLoader(targetClass).loads(group, determineClassLoader());
+    }
+
     // ----------------------------------------------------------------
 
+    /**
+     * Non-blocking {@link #create(Class)}: a first lookup scans, loads and initializes the extension on a shared pool
+     * of at most {@code service.spi.preload.parallelism} daemon threads, and concurrent calls for the same singleton
+     * complete from a single creation.
+     */
+    public static <T> CompletableFuture<T> createAsync(final Class<T> targetClass) {
+        return createAsync(targetClass, null, asyncExecutor());
+    }
+
+    public static <T> CompletableFuture<T> createAsync(final Class<T> targetClass, final String name) {
+        return createAsync(targetClass, name, asyncExecutor());
+    }
+
+    /**
+     * @param name     the extension name, {@code null} for the default extension
+     * @param executor runs scanning, class loading and {@code init()}
+     */
+    public static <T> CompletableFuture<T> createAsync(final Class<T> targetClass, final String name, final Executor executor) {
+        return createLoader(targetClass).loadAsync(name, executor, determineClassLoader());
+    }
+
+    public static <T> CompletableFuture<List<T>> createsAsync(final Class<T> targetClass) {
+        return createsAsync(targetClass, asyncExecutor());
+    }
+
+    public static <T> CompletableFuture<List<T>> createsAsync(final Class<T> targetClass, final Executor executor) {
+        return createLoader(targetClass).loadsAsync(executor, determineClassLoader());
+    }
+
+    private static Executor asyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (null == executor) {
+            ASYNC_EXECUTOR_LOCK.lock();
+            try {
+                executor = asyncExecutor;
+                if (null == executor) {
+                    int parallelism = ExtensionProperties.preloadParallelism();
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), new LifeCycleThreadFactory("service-spi-async-"));
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                    asyncExecutor = executor;
+                }
+            } finally {
+                ASYNC_EXECUTOR_LOCK.unlock();
+            }
+        }
+
+        return executor;
+    }
+
+    private static void shutdownAsyncExecutor() {
+        ExecutorService executor;
+        ASYNC_EXECUTOR_LOCK.lock();
+        try {
+            executor = asyncExecutor;
+            asyncExecutor = null;
+        } finally {
+            ASYNC_EXECUTOR_LOCK.unlock();
+        }
+
+        if (null != executor) {
+            executor.shutdown();
+        }
+    }
+
     private static ClassLoader determineClassLoader() {
         return ExtensionFactory.class.getClassLoader();
     }
@@ -92,4 +363,31 @@ public final class ExtensionFactory {
     private static Map<Class<?>, ExtensionLoader<?>> createLoaders() {
         return ExtensionLoaderFactory.loaders();
     }
+
+    private static List<ExtensionLoader<?>> createLoaders(final Class<?>[] targetClasses) {
+        List<ExtensionLoader<?>> loaders = new ArrayList<>(targetClasses.length);
+        for (Class<?> targetClass : targetClasses) {
+            loaders.add(createLoader(targetClass));
+        }
+
+        return loaders;
+    }
+
+    private static final class LifeCycleThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private LifeCycleThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable task) {
+            Thread thread = new Thread(task, this.prefix + this.sequence.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
 }
@@ -43,4 +43,12 @@ public final class ExtensionLoaderFactory {
     public static Map<Class<?>, ExtensionLoader<?>> loaders() {
         return ExtensionLoader.loaders();
     }
+
+    public static void freeze() {
+        ExtensionLoader.freezeAll();
+    }
+
+    public static boolean isFrozen() {
+        return ExtensionLoader.isFrozen();
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * {@code ExtensionDirectory}
+ * <p>
+ * Bulk discovery, enabled by {@code -Dservice.spi.bulk.enabled=true}: the {@code META-INF/extensions/} directory
+ * of every classpath root is listed once per {@code ClassLoader}, and the resource files of all interfaces are
+ * known from then on, in classpath order, without a {@code getResources} call per interface.
+ * <p>
+ * Roots are found only through their {@code META-INF/extensions/} directory entry, which Maven and Gradle always write;
+ * an interface with no file under those roots is looked up with {@code getResources} as before. Shade, assembly and
+ * plain zip tooling may leave the directory entry out: the files of such a jar are then only found for interfaces that
+ * no listed root provides, so keep bulk discovery disabled on classpaths holding such jars.
+ * With parallel discovery ({@link ExtensionDiscovery}) the roots are listed concurrently and merged in classpath order.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtensionDirectory.class);
+
+    private static final Map<ClassLoader, Map<String, List<URL>>> CACHED_DIRECTORIES = new WeakHashMap<>();
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private ExtensionDirectory() {
+        throw new AssertionError("No " + ExtensionDirectory.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return the {@code META-INF/extensions/<interface>} files visible to the {@code ClassLoader}, in classpath order
+     */
+    public static List<URL> lookup(final String targetInterface, final ClassLoader loader) {
+        ClassLoader classLoader = loader != null ? loader : ClassLoader.getSystemClassLoader();
+        Map<String, List<URL>> directories;
+        LOCK.lock();
+        try {
+            directories = CACHED_DIRECTORIES.computeIfAbsent(classLoader, ExtensionDirectory::list);
+        } finally {
+            LOCK.unlock();
+        }
+
+        return directories.getOrDefault(targetInterface, Collections.emptyList());
+    }
+
+    /**
+     * Drops the listing of the {@code ClassLoader}, so that the next lookup lists the classpath again.
+     */
+    public static void evict(final ClassLoader loader) {
+        LOCK.lock();
+        try {
+            CACHED_DIRECTORIES.remove(loader != null ? loader : ClassLoader.getSystemClassLoader());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    static Map<String, List<URL>> list(final ClassLoader loader) {
+        Map<String, List<URL>> directories = new HashMap<>();
+        try {
+            List<URL> roots = Collections.list(loader.getResources(ExtensionConstants.EXTENSION_DIRECTORY));
+            List<List<URL>> listings = ExtensionDiscovery.map(roots, ExtensionDirectory::listFiles);
+            for (List<URL> files : listings) {
+                for (URL file : files) {
+                    String path = file.getPath();
+                    String targetInterface = path.substring(path.lastIndexOf('/') + 1);
+                    directories.computeIfAbsent(targetInterface, key -> new ArrayList<>()).add(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("List @SPI extension directories error, fall back to scanning per interface", e);
+            return Collections.emptyMap();
+        }
+
+        return directories;
+    }
+
+    /**
+     * @return the {@code META-INF/extensions/<interface>} files of one classpath root, empty if it can not be listed
+     */
+    private static List<URL> listFiles(final URL root) {
+        try {
+            List<URL> files = new ArrayList<>();
+            for (String targetInterface : listRoot(root)) {
+                files.add(new URL(root, targetInterface));
+            }
+
+            return files;
+        } catch (IOException | URISyntaxException e) {
+            log.warn("List @SPI extension directory:[{}] failed:[{}]", root, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static List<String> listRoot(final URL root) throws IOException, URISyntaxException {
+        List<String> names = new ArrayList<>();
+        if ("file".equals(root.getProtocol())) {
+            File[] files = new File(root.toURI()).listFiles();
+            if (null != files) {
+                for (File file : files) {
+                    if (file.isFile()) {
+                        names.add(file.getName());
+                    }
+                }
+            }
+            Collections.sort(names);
+
+            return names;
+        }
+
+        URLConnection connection = root.openConnection();
+        if (connection instanceof JarURLConnection) {
+            names.addAll(listJar((JarURLConnection) connection));
+        }
+
+        return names;
+    }
+
+    /**
+     * @return the interface names of the {@code META-INF/extensions/<interface>} entries of the jar
+     */
+    private static List<String> listJar(final JarURLConnection connection) throws IOException {
+        List<String> names = new ArrayList<>();
+        JarFile jarFile = connection.getJarFile();
+        String prefix = ExtensionConstants.EXTENSION_DIRECTORY;
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (!entry.isDirectory() && name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0) {
+                names.add(name.substring(prefix.length()));
+            }
+        }
+        if (!connection.getUseCaches()) {
+            jarFile.close();
+        }
+
+        return names;
+    }
+}
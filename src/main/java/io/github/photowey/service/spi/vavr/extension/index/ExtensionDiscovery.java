@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * {@code ExtensionDiscovery}
+ * <p>
+ * Parallel discovery, enabled by {@code -Dservice.spi.discovery.parallelism=<threads>} (greater than 1): the
+ * per-resource work of a scan (reading and parsing listing files, loading classes uninitialized, listing classpath
+ * roots) runs on one shared {@link ForkJoinPool} of that many daemon threads, created by the first parallel scan and
+ * reused by all later ones; idle workers are retired by the pool itself. Parallelism can only pay off for large
+ * classpaths on slow storage.
+ * <p>
+ * Results are always handed back in the order of the resources, and merged by the caller exactly as a serial scan
+ * would: same declaration order, same tie-breaking and duplicate rules, same errors in the same order. The tasks
+ * themselves must be safe to run concurrently: loading a class uninitialized records its class loader and reports
+ * metrics from the worker thread.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionDiscovery {
+
+    private static final ReentrantLock POOL_LOCK = new ReentrantLock();
+
+    private static volatile ForkJoinPool pool;
+
+    private ExtensionDiscovery() {
+        throw new AssertionError("No " + ExtensionDiscovery.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    public static boolean isParallel() {
+        return ExtensionProperties.discoveryParallelism() > 1;
+    }
+
+    /**
+     * Applies the task to every item, concurrently when parallel discovery is enabled and there is more than one item.
+     * The first failure, in the order of the items, is rethrown once all tasks before it have completed.
+     *
+     * @return the results, in the order of the items
+     */
+    public static <T, R> List<R> map(final List<T> items, final Function<T, R> task) {
+        List<R> results = new ArrayList<>(items.size());
+        int parallelism = ExtensionProperties.discoveryParallelism();
+        if (parallelism <= 1 || items.size() <= 1) {
+            for (T item : items) {
+                results.add(task.apply(item));
+            }
+
+            return results;
+        }
+
+        ForkJoinPool executor = pool(parallelism);
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(item), executor));
+        }
+
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw e;
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * The shared discovery pool, replaced (and the previous one shut down once its queued scans completed) when the
+     * configured parallelism changed since it was created.
+     */
+    private static ForkJoinPool pool(final int parallelism) {
+        ForkJoinPool executor = pool;
+        if (null != executor && executor.getParallelism() == parallelism) {
+            return executor;
+        }
+
+        POOL_LOCK.lock();
+        try {
+            executor = pool;
+            if (null == executor || executor.getParallelism() != parallelism) {
+                if (null != executor) {
+                    executor.shutdown();
+                }
+                executor = new ForkJoinPool(parallelism);
+                pool = executor;
+            }
+
+            return executor;
+        } finally {
+            POOL_LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * {@code ExtensionIndex}
+ * <p>
+ * Reads and writes the {@code META-INF/extensions.index} file generated at build time by the
+ * {@code ExtensionIndexProcessor} of the {@code service-spi-processor} artifact.
+ * <p>
+ * Every line holds one extension: {@code interface<TAB>name<TAB>order<TAB>scope<TAB>className}, followed by its
+ * {@link ExtensionCondition}: {@code <TAB>groups<TAB>tags<TAB>properties<TAB>classes}, each a comma-separated list
+ * whose values escape {@code \\}, {@code ,}, tabs and line breaks with a backslash, in the declaration order of the {@code META-INF/extensions/<interface>} file it was generated from. Lines of the
+ * first version, without conditions, are still read.
+ * All index files visible to a {@code ClassLoader} are read once and cached, together with the listing files each of
+ * them covers: {@code <root>/META-INF/extensions/<interface>} for every interface indexed under the same {@code <root>}.
+ * An indexed interface is loaded from the index only, without resource scanning or annotation reflection; listing files
+ * of jars built without the processor are not covered, and are scanned as well only while the index fallback is enabled.
+ * <p>
+ * The index also records a fingerprint of every listing file it was generated from, as {@code #listing<TAB>interface<TAB>crc32}
+ * comment lines. When an index is loaded, each fingerprinted listing file is read directly from the same {@code <root>}
+ * and checked; an interface whose listing file is gone or has changed since the index was generated, e.g. by an incremental
+ * build that only edited the listing, is dropped from the index and scanned as if it were not indexed.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtensionIndex.class);
+
+    public static final String HEADER = "# service-spi extension index v2";
+    /**
+     * Starts a listing fingerprint line, a comment to readers without fingerprint support.
+     */
+    private static final String FINGERPRINT = "#listing";
+
+    private static final char SEPARATOR = '\t';
+    private static final char VALUE_SEPARATOR = ',';
+    private static final char ESCAPE = '\\';
+    private static final int FIELD_COUNT = 9;
+    private static final int V1_FIELD_COUNT = 5;
+
+    private static final Map<ClassLoader, LoadedIndex> CACHED_INDEXES = new WeakHashMap<>();
+    /**
+     * Guards {@link #CACHED_INDEXES}; held while the index files are read, which must not pin a virtual thread.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private ExtensionIndex() {
+        throw new AssertionError("No " + ExtensionIndex.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    public static List<ExtensionIndexEntry> lookup(final String targetInterface, final ClassLoader loader) {
+        return loadedIndex(loader).entries.getOrDefault(targetInterface, Collections.emptyList());
+    }
+
+    /**
+     * @return the URLs of the {@code META-INF/extensions/<interface>} files already covered by the index
+     */
+    public static Set<String> coveredListings(final String targetInterface, final ClassLoader loader) {
+        return loadedIndex(loader).listings.getOrDefault(targetInterface, Collections.emptySet());
+    }
+
+    /**
+     * Drops the cached index of the {@code ClassLoader}, so that the next lookup reads it again.
+     */
+    public static void evict(final ClassLoader loader) {
+        LOCK.lock();
+        try {
+            CACHED_INDEXES.remove(loader != null ? loader : ClassLoader.getSystemClassLoader());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    public static List<ExtensionIndexEntry> read(final Reader reader) throws IOException {
+        return read(reader, new HashMap<>());
+    }
+
+    /**
+     * @param fingerprints receives the listing fingerprints of the index, by interface
+     */
+    public static List<ExtensionIndexEntry> read(final Reader reader, final Map<String, String> fingerprints) throws IOException {
+        List<ExtensionIndexEntry> entries = new ArrayList<>();
+        BufferedReader buffered = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = buffered.readLine()) != null) {
+            lineNumber++;
+            if (line.startsWith(FINGERPRINT + SEPARATOR)) {
+                String[] fields = split(line);
+                if (fields.length != 3) {
+                    throw new IOException("Malformed @SPI extension index line " + lineNumber + ": " + line);
+                }
+                fingerprints.put(fields[1], fields[2]);
+                continue;
+            }
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+
+            String[] fields = split(line);
+            if (fields.length != FIELD_COUNT && fields.length != V1_FIELD_COUNT) {
+                throw new IOException("Malformed @SPI extension index line " + lineNumber + ": " + line);
+            }
+
+            ExtensionCondition condition = fields.length == V1_FIELD_COUNT
+                    ? ExtensionCondition.NONE
+                    : ExtensionCondition.of(splitValues(fields[5]), splitValues(fields[6]), splitValues(fields[7]), splitValues(fields[8]));
+            try {
+                entries.add(new ExtensionIndexEntry(fields[0], fields[1], Integer.parseInt(fields[2]), Scoped.valueOf(fields[3]), fields[4], condition));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed @SPI extension index line " + lineNumber + ": " + line, e);
+            }
+        }
+
+        return entries;
+    }
+
+    public static void write(final Writer writer, final Collection<ExtensionIndexEntry> entries) throws IOException {
+        write(writer, entries, Collections.emptyMap());
+    }
+
+    /**
+     * @param fingerprints the {@link #fingerprint(byte[])} of the listing file each interface was indexed from, by interface
+     */
+    public static void write(final Writer writer, final Collection<ExtensionIndexEntry> entries, final Map<String, String> fingerprints) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Map.Entry<String, String> fingerprint : new TreeMap<>(fingerprints).entrySet()) {
+            writer.write(FINGERPRINT);
+            writer.write(SEPARATOR);
+            writer.write(fingerprint.getKey());
+            writer.write(SEPARATOR);
+            writer.write(fingerprint.getValue());
+            writer.write('\n');
+        }
+        for (ExtensionIndexEntry entry : entries) {
+            writer.write(entry.getTargetInterface());
+            writer.write(SEPARATOR);
+            writer.write(entry.getName());
+            writer.write(SEPARATOR);
+            writer.write(Integer.toString(entry.getOrder()));
+            writer.write(SEPARATOR);
+            writer.write(entry.getScope().name());
+            writer.write(SEPARATOR);
+            writer.write(entry.getClassName());
+            ExtensionCondition condition = entry.getCondition();
+            writeValues(writer, condition.getGroups());
+            writeValues(writer, condition.getTags());
+            writeValues(writer, condition.getProperties());
+            writeValues(writer, condition.getClasses());
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * @return the fingerprint of the content of a {@code META-INF/extensions/<interface>} file
+     */
+    public static String fingerprint(final byte[] listing) {
+        CRC32 crc = new CRC32();
+        crc.update(listing, 0, listing.length);
+
+        return Long.toHexString(crc.getValue());
+    }
+
+    // ----------------------------------------------------------------
+
+    private static LoadedIndex loadedIndex(final ClassLoader loader) {
+        ClassLoader classLoader = loader != null ? loader : ClassLoader.getSystemClassLoader();
+        LOCK.lock();
+        try {
+            return CACHED_INDEXES.computeIfAbsent(classLoader, ExtensionIndex::load);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static LoadedIndex load(final ClassLoader loader) {
+        Map<String, List<ExtensionIndexEntry>> indexes = new HashMap<>();
+        Map<String, Set<String>> listings = new HashMap<>();
+        Set<String> stale = new HashSet<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(ExtensionConstants.EXTENSION_INDEX_LOCATION);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String location = url.toString();
+                String root = location.substring(0, location.length() - ExtensionConstants.EXTENSION_INDEX_LOCATION.length());
+                Map<String, String> fingerprints = new HashMap<>();
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                    for (ExtensionIndexEntry entry : read(reader, fingerprints)) {
+                        indexes.computeIfAbsent(entry.getTargetInterface(), key -> new ArrayList<>()).add(entry);
+                        listings.computeIfAbsent(entry.getTargetInterface(), key -> new HashSet<>())
+                                .add(root + ExtensionConstants.EXTENSION_DIRECTORY + entry.getTargetInterface());
+                    }
+                }
+
+                for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+                    String listing = root + ExtensionConstants.EXTENSION_DIRECTORY + fingerprint.getKey();
+                    if (!fingerprint.getValue().equals(fingerprintOf(listing))) {
+                        log.warn("The @SPI extension index:[{}] is stale for:[{}], scan its listing files instead", location, fingerprint.getKey());
+                        stale.add(fingerprint.getKey());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Load @SPI extension index error, ignore the index and fall back to scanning", e);
+            return new LoadedIndex(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        indexes.keySet().removeAll(stale);
+        listings.keySet().removeAll(stale);
+
+        return new LoadedIndex(indexes, listings);
+    }
+
+    /**
+     * @return the fingerprint of the listing file, {@code null} if it cannot be read
+     */
+    private static String fingerprintOf(final String listing) {
+        try (InputStream input = new URL(listing).openStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+
+            return fingerprint(bytes.toByteArray());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeValues(final Writer writer, final List<String> values) throws IOException {
+        writer.write(SEPARATOR);
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(VALUE_SEPARATOR);
+            }
+            writeValue(writer, values.get(i));
+        }
+    }
+
+    private static void writeValue(final Writer writer, final String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case ESCAPE:
+                case VALUE_SEPARATOR:
+                    writer.write(ESCAPE);
+                    writer.write(c);
+                    break;
+                case SEPARATOR:
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+
+    private static List<String> splitValues(final String field) {
+        if (field.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (ESCAPE == c && i + 1 < field.length()) {
+                char escaped = field.charAt(++i);
+                value.append('t' == escaped ? SEPARATOR : 'n' == escaped ? '\n' : 'r' == escaped ? '\r' : escaped);
+            } else if (VALUE_SEPARATOR == c) {
+                addValue(values, value);
+            } else {
+                value.append(c);
+            }
+        }
+        addValue(values, value);
+
+        return values;
+    }
+
+    private static void addValue(final List<String> values, final StringBuilder value) {
+        if (value.length() > 0) {
+            values.add(value.toString());
+            value.setLength(0);
+        }
+    }
+
+    private static String[] split(final String line) {
+        List<String> fields = new ArrayList<>(FIELD_COUNT);
+        int start = 0;
+        int next;
+        while ((next = line.indexOf(SEPARATOR, start)) >= 0) {
+            fields.add(line.substring(start, next));
+            start = next + 1;
+        }
+        fields.add(line.substring(start));
+
+        return fields.toArray(new String[0]);
+    }
+
+    private static final class LoadedIndex {
+
+        private final Map<String, List<ExtensionIndexEntry>> entries;
+        /**
+         * The covered listing file URLs, by interface.
+         */
+        private final Map<String, Set<String>> listings;
+
+        private LoadedIndex(final Map<String, List<ExtensionIndexEntry>> entries, final Map<String, Set<String>> listings) {
+            this.entries = entries;
+            this.listings = listings;
+        }
+    }
+}
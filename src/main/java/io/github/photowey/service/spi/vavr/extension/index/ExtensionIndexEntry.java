@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * {@code ExtensionIndexEntry}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public class ExtensionIndexEntry implements Serializable {
+
+    private static final long serialVersionUID = 4385237046415046411L;
+
+    private final String targetInterface;
+    private final String name;
+    private final int order;
+    private final Scoped scope;
+    private final String className;
+    private final ExtensionCondition condition;
+
+    public ExtensionIndexEntry(final String targetInterface, final String name, final int order, final Scoped scope, final String className) {
+        this(targetInterface, name, order, scope, className, ExtensionCondition.NONE);
+    }
+
+    public ExtensionIndexEntry(final String targetInterface, final String name, final int order, final Scoped scope, final String className, final ExtensionCondition condition) {
+        this.targetInterface = targetInterface;
+        this.name = name;
+        this.order = order;
+        this.scope = scope;
+        this.className = className;
+        this.condition = null != condition ? condition : ExtensionCondition.NONE;
+    }
+
+    public String getTargetInterface() {
+        return this.targetInterface;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getOrder() {
+        return this.order;
+    }
+
+    public Scoped getScope() {
+        return this.scope;
+    }
+
+    public String getClassName() {
+        return this.className;
+    }
+
+    public ExtensionCondition getCondition() {
+        return this.condition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExtensionIndexEntry)) return false;
+        ExtensionIndexEntry that = (ExtensionIndexEntry) o;
+        return getOrder() == that.getOrder()
+                && Objects.equals(getTargetInterface(), that.getTargetInterface())
+                && Objects.equals(getName(), that.getName())
+                && getScope() == that.getScope()
+                && Objects.equals(getClassName(), that.getClassName())
+                && Objects.equals(getCondition(), that.getCondition());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getTargetInterface(), getName(), getOrder(), getScope(), getClassName(), getCondition());
+    }
+
+    @Override
+    public String toString() {
+        return "ExtensionIndexEntry(targetInterface=" + this.targetInterface + ", name=" + this.name + ", order=" + this.order + ", scope=" + this.scope + ", className=" + this.className + ", condition=" + this.condition + ")";
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@code ExtensionListing}
+ * <p>
+ * Parses the {@code META-INF/extensions/<interface>} listing files, line by line and in declaration order, straight
+ * from their bytes: no {@code Properties}, no intermediate map, one {@code String} per name and class name.
+ * <p>
+ * Every line holds either a class name, or {@code name=className} to name the extension explicitly. Blank lines are
+ * skipped; {@code #} starts a comment anywhere on a line, {@code !} at its start. A line whose class name is not a
+ * valid binary name is reported with its line number and skipped.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionListing {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte OTHER = 0;
+    private static final byte IDENTIFIER_PART = 1;
+    private static final byte IDENTIFIER_START = 2;
+    /**
+     * The identifier class of every ASCII character, so that class names are checked without a {@code Character} call per byte.
+     */
+    private static final byte[] ASCII = new byte[128];
+
+    static {
+        for (int c = 0; c < ASCII.length; c++) {
+            ASCII[c] = Character.isJavaIdentifierStart(c) ? IDENTIFIER_START
+                    : Character.isJavaIdentifierPart(c) && !Character.isIdentifierIgnorable(c) ? IDENTIFIER_PART : OTHER;
+        }
+    }
+
+    private ExtensionListing() {
+        throw new AssertionError("No " + ExtensionListing.class.getName() + " instances for you!");
+    }
+
+    /**
+     * Receives the lines of a listing file in declaration order.
+     */
+    public interface Visitor {
+
+        /**
+         * @param name       the explicit extension name, {@code null} for a bare class name
+         * @param className  the binary name of the extension class
+         * @param lineNumber the 1-based line number
+         */
+        void extension(String name, String className, int lineNumber);
+
+        void malformed(String line, int lineNumber, String reason);
+    }
+
+    // ----------------------------------------------------------------
+
+    public static void parse(final byte[] content, final Visitor visitor) {
+        int lineNumber = 0;
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n') {
+                parseLine(content, start, i, ++lineNumber, visitor);
+                start = i + 1;
+            }
+        }
+        if (start < content.length) {
+            parseLine(content, start, content.length, ++lineNumber, visitor);
+        }
+    }
+
+    /**
+     * Streams the listing through one reused buffer, grown only for a line longer than it.
+     */
+    public static void parse(final InputStream input, final Visitor visitor) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        int scanned = 0;
+        int lineNumber = 0;
+
+        int read;
+        while ((read = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            int start = 0;
+            for (int i = scanned; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(buffer, start, i, ++lineNumber, visitor);
+                    start = i + 1;
+                }
+            }
+
+            length -= start;
+            System.arraycopy(buffer, start, buffer, 0, length);
+            scanned = length;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+        }
+        if (length > 0) {
+            parseLine(buffer, 0, length, ++lineNumber, visitor);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static void parseLine(final byte[] bytes, final int from, final int to, final int lineNumber, final Visitor visitor) {
+        int start = from;
+        if (1 == lineNumber && to - start >= 3
+                && (bytes[start] & 0xFF) == 0xEF && (bytes[start + 1] & 0xFF) == 0xBB && (bytes[start + 2] & 0xFF) == 0xBF) {
+            start += 3;
+        }
+
+        int end = to;
+        int separator = -1;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '#') {
+                end = i;
+                break;
+            }
+            if (b == '=' && separator < 0) {
+                separator = i;
+            }
+        }
+
+        start = skipWhitespace(bytes, start, end);
+        end = trimWhitespace(bytes, start, end);
+        if (start == end || bytes[start] == '!') {
+            return;
+        }
+
+        if (separator < 0) {
+            visitClass(bytes, null, start, end, lineNumber, visitor);
+            return;
+        }
+
+        int nameEnd = trimWhitespace(bytes, start, separator);
+        int classStart = skipWhitespace(bytes, separator + 1, end);
+        if (start == nameEnd || classStart == end) {
+            visitor.malformed(toString(bytes, start, end), lineNumber, "expected name=className");
+            return;
+        }
+
+        visitClass(bytes, toString(bytes, start, nameEnd), classStart, end, lineNumber, visitor);
+    }
+
+    private static void visitClass(final byte[] bytes, final String name, final int start, final int end, final int lineNumber, final Visitor visitor) {
+        if (!isBinaryName(bytes, start, end)) {
+            visitor.malformed(toString(bytes, start, end), lineNumber, "not a class name");
+            return;
+        }
+
+        visitor.extension(name, toString(bytes, start, end), lineNumber);
+    }
+
+    /**
+     * Checks the ASCII characters only; any non-ASCII byte is taken as part of a Java identifier.
+     */
+    private static boolean isBinaryName(final byte[] bytes, final int start, final int end) {
+        boolean segmentStart = true;
+        for (int i = start; i < end; i++) {
+            int b = bytes[i];
+            if (b == '.') {
+                if (segmentStart) {
+                    return false;
+                }
+                segmentStart = true;
+                continue;
+            }
+            if (b >= 0 && ASCII[b] < (segmentStart ? IDENTIFIER_START : IDENTIFIER_PART)) {
+                return false;
+            }
+            segmentStart = false;
+        }
+
+        return !segmentStart;
+    }
+
+    private static int skipWhitespace(final byte[] bytes, final int start, final int end) {
+        int i = start;
+        while (i < end && isWhitespace(bytes[i])) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int trimWhitespace(final byte[] bytes, final int start, final int end) {
+        int i = end;
+        while (i > start && isWhitespace(bytes[i - 1])) {
+            i--;
+        }
+
+        return i;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private static String toString(final byte[] bytes, final int start, final int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code ExtensionScanCache}
+ * <p>
+ * A persistent cache of scan results for the system {@code ClassLoader}, enabled by
+ * {@code -Dservice.spi.cache.dir=<directory>}. Each scanned interface is stored with the same descriptors as the
+ * extension index (name, order, scope, class name and activation conditions), in a binary file named after a fingerprint of
+ * {@code java.class.path}: the path, size and modification time of every entry and, for directories, of their
+ * {@code META-INF/extensions/} files. On a match the registry is built without {@code getResources},
+ * parsing listing files or reading {@code @SPI} reflectively.
+ * <p>
+ * Scan results are collected in memory and the file is written by {@link #flush()}, which
+ * {@link io.github.photowey.service.spi.vavr.extension.loader.ExtensionLoader#freezeAll()} calls; an application that
+ * never freezes calls it once its startup is complete. No shutdown hook is registered. The file is read through a
+ * read-only memory mapping.
+ * <p>
+ * Changing {@code @SPI} attributes of a class in a classpath directory, without touching its listing file, is not
+ * detected; delete the cache directory after such a change.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionScanCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtensionScanCache.class);
+
+    private static final int MAGIC = 0x53504943;
+    private static final int VERSION = 2;
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static volatile CacheFile cacheFile;
+
+    private ExtensionScanCache() {
+        throw new AssertionError("No " + ExtensionScanCache.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return the cached extensions of the interface, {@code null} when disabled, not cached or not the system {@code ClassLoader}
+     */
+    public static List<ExtensionIndexEntry> lookup(final String targetInterface, final ClassLoader loader) {
+        CacheFile file = cacheFile(loader);
+
+        return null == file ? null : file.entries.get(targetInterface);
+    }
+
+    /**
+     * Adds the scan result of the interface, to be written by the next {@link #flush()}.
+     */
+    public static void store(final String targetInterface, final ClassLoader loader, final List<ExtensionIndexEntry> entries) {
+        CacheFile file = cacheFile(loader);
+        if (null == file) {
+            return;
+        }
+
+        file.lock.lock();
+        try {
+            file.entries.put(targetInterface, Collections.unmodifiableList(new ArrayList<>(entries)));
+            file.dirty = true;
+        } finally {
+            file.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the cache file if scan results were added since it was last written, on the calling thread.
+     */
+    public static void flush() {
+        CacheFile file = cacheFile;
+        if (null == file || !file.dirty) {
+            return;
+        }
+
+        file.lock.lock();
+        try {
+            if (file.dirty) {
+                write(file.path, file.fingerprint, file.entries);
+                file.dirty = false;
+            }
+        } catch (IOException e) {
+            log.warn("Write @SPI extension scan cache:[{}] failed:[{}]", file.path, e.getMessage());
+        } finally {
+            file.lock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    static void write(final Path path, final String fingerprint, final Map<String, List<ExtensionIndexEntry>> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeString(output, fingerprint);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, List<ExtensionIndexEntry>> entry : new TreeMap<>(entries).entrySet()) {
+                writeString(output, entry.getKey());
+                output.writeInt(entry.getValue().size());
+                for (ExtensionIndexEntry indexEntry : entry.getValue()) {
+                    writeString(output, indexEntry.getName());
+                    output.writeInt(indexEntry.getOrder());
+                    writeString(output, indexEntry.getScope().name());
+                    writeString(output, indexEntry.getClassName());
+                    ExtensionCondition condition = indexEntry.getCondition();
+                    writeStrings(output, condition.getGroups());
+                    writeStrings(output, condition.getTags());
+                    writeStrings(output, condition.getProperties());
+                    writeStrings(output, condition.getClasses());
+                }
+            }
+        }
+
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                bytes.writeTo(output);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the cached extensions by interface, {@code null} if the file is missing, corrupt or of another fingerprint
+     */
+    static Map<String, List<ExtensionIndexEntry>> read(final Path path, final String fingerprint) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !fingerprint.equals(readString(buffer))) {
+                return null;
+            }
+
+            int interfaces = buffer.getInt();
+            Map<String, List<ExtensionIndexEntry>> entries = new HashMap<>(interfaces * 2);
+            for (int i = 0; i < interfaces; i++) {
+                String targetInterface = readString(buffer);
+                int size = buffer.getInt();
+                List<ExtensionIndexEntry> extensions = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    String name = readString(buffer);
+                    int order = buffer.getInt();
+                    Scoped scope = Scoped.valueOf(readString(buffer));
+                    String className = readString(buffer);
+                    ExtensionCondition condition = ExtensionCondition.of(
+                            readStrings(buffer), readStrings(buffer), readStrings(buffer), readStrings(buffer));
+                    extensions.add(new ExtensionIndexEntry(targetInterface, name, order, scope, className, condition));
+                }
+                entries.put(targetInterface, Collections.unmodifiableList(extensions));
+            }
+
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Read @SPI extension scan cache:[{}] failed, rescanning:[{}]", path, e.getMessage());
+            return null;
+        }
+    }
+
+    static String fingerprint(final String classPath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String entry : classPath.split(File.pathSeparator)) {
+                File file = new File(entry);
+                update(digest, file);
+                if (file.isDirectory()) {
+                    File[] listings = new File(file, ExtensionConstants.EXTENSION_DIRECTORY).listFiles();
+                    if (null != listings) {
+                        Arrays.sort(listings);
+                        for (File listing : listings) {
+                            update(digest, listing);
+                        }
+                    }
+                    update(digest, new File(file, ExtensionConstants.EXTENSION_INDEX_LOCATION));
+                }
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+
+            return hex.substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static CacheFile cacheFile(final ClassLoader loader) {
+        String directory = ExtensionProperties.cacheDirectory();
+        if (null == directory || loader != ClassLoader.getSystemClassLoader()) {
+            return null;
+        }
+
+        CacheFile file = cacheFile;
+        if (null == file || !file.directory.equals(directory)) {
+            LOCK.lock();
+            try {
+                file = cacheFile;
+                if (null == file || !file.directory.equals(directory)) {
+                    String fingerprint = fingerprint(System.getProperty("java.class.path", ""));
+                    Path path = Paths.get(directory, "extensions-" + fingerprint + ".cache");
+                    Map<String, List<ExtensionIndexEntry>> entries = read(path, fingerprint);
+                    file = new CacheFile(directory, path, fingerprint, null == entries ? Collections.emptyMap() : entries);
+                    cacheFile = file;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        return file;
+    }
+
+    private static void update(final MessageDigest digest, final File file) {
+        digest.update(file.getPath().getBytes(StandardCharsets.UTF_8));
+        digest.update(ByteBuffer.allocate(16).putLong(file.length()).putLong(file.lastModified()).array());
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(final DataOutputStream output, final List<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    private static List<String> readStrings(final ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (0 == size) {
+            return Collections.emptyList();
+        }
+
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(buffer));
+        }
+
+        return values;
+    }
+
+    private static final class CacheFile {
+
+        private final String directory;
+        private final Path path;
+        private final String fingerprint;
+        private final Map<String, List<ExtensionIndexEntry>> entries;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean dirty;
+
+        private CacheFile(final String directory, final Path path, final String fingerprint, final Map<String, List<ExtensionIndexEntry>> entries) {
+            this.directory = directory;
+            this.path = path;
+            this.fingerprint = fingerprint;
+            this.entries = new ConcurrentHashMap<>(entries);
+        }
+    }
+}
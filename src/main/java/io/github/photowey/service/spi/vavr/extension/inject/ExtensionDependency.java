@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.inject;
+
+/**
+ * {@code ExtensionDependency}
+ * <p>
+ * One injection point of an extension: the extension interface it takes, and the name of the extension injected,
+ * empty for the default one.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionDependency {
+
+    private final Class<?> type;
+    private final String name;
+
+    ExtensionDependency(final Class<?> type, final String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return {@code true} if the default extension (lowest order) is injected
+     */
+    public boolean isDefault() {
+        return this.name.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return this.type.getName() + (this.isDefault() ? "" : "#" + this.name);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.inject;
+
+import io.github.photowey.service.spi.vavr.core.annotation.Inject;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@code ExtensionInjectionPlan}
+ * <p>
+ * The {@link Inject} points of an extension class: the constructor to call and the extensions it takes, then the
+ * setters and the extension each of them takes. Built once per class, with the setters bound to {@link MethodHandle}s,
+ * and cached in a {@link ClassValue}, so that it neither costs reflection per instance nor keeps a plugin class alive.
+ * <p>
+ * A class without any {@link Inject} point has the {@link #isEmpty() empty} plan, and is created through its no-arg constructor.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionInjectionPlan {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ExtensionInjectionPlan EMPTY = new ExtensionInjectionPlan(
+            null, Collections.emptyList(), Collections.emptyList(), new MethodHandle[0]);
+
+    private static final ClassValue<ExtensionInjectionPlan> PLANS = new ClassValue<ExtensionInjectionPlan>() {
+        @Override
+        protected ExtensionInjectionPlan computeValue(final Class<?> implClass) {
+            return create(implClass);
+        }
+    };
+
+    private final Class<?>[] constructorTypes;
+    private final List<ExtensionDependency> constructorDependencies;
+    private final List<ExtensionDependency> setterDependencies;
+    private final MethodHandle[] setters;
+
+    private ExtensionInjectionPlan(
+            final Class<?>[] constructorTypes,
+            final List<ExtensionDependency> constructorDependencies,
+            final List<ExtensionDependency> setterDependencies,
+            final MethodHandle[] setters) {
+        this.constructorTypes = constructorTypes;
+        this.constructorDependencies = constructorDependencies;
+        this.setterDependencies = setterDependencies;
+        this.setters = setters;
+    }
+
+    /**
+     * @throws IllegalStateException if the class declares more than one {@link Inject} constructor, or an injection
+     *                               point that does not take exactly one extension interface
+     */
+    public static ExtensionInjectionPlan of(final Class<?> implClass) {
+        return PLANS.get(implClass);
+    }
+
+    /**
+     * @return the parameter types of the {@link Inject} constructor, {@code null} for the no-arg constructor
+     */
+    public Class<?>[] getConstructorTypes() {
+        return null == this.constructorTypes ? null : this.constructorTypes.clone();
+    }
+
+    public List<ExtensionDependency> getConstructorDependencies() {
+        return this.constructorDependencies;
+    }
+
+    public List<ExtensionDependency> getSetterDependencies() {
+        return this.setterDependencies;
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * Calls every setter with the extension at the same position of {@link #getSetterDependencies()}.
+     */
+    public void inject(final Object instance, final Object[] extensions) throws Throwable {
+        for (int i = 0; i < this.setters.length; i++) {
+            this.setters[i].invokeExact(instance, extensions[i]);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    private static ExtensionInjectionPlan create(final Class<?> implClass) {
+        Constructor<?> constructor = null;
+        for (Constructor<?> candidate : implClass.getDeclaredConstructors()) {
+            if (candidate.isAnnotationPresent(Inject.class)) {
+                if (null != constructor) {
+                    throw new IllegalStateException("Extension class: " + implClass.getName() + " declares more than one @Inject constructor");
+                }
+                constructor = candidate;
+            }
+        }
+
+        List<Method> methods = new ArrayList<>();
+        for (Method method : implClass.getMethods()) {
+            if (!method.isAnnotationPresent(Inject.class)) {
+                continue;
+            }
+            if (Modifier.isStatic(method.getModifiers()) || 1 != method.getParameterCount()) {
+                throw new IllegalStateException("Extension class: " + implClass.getName() + " @Inject method: " + method.getName()
+                        + " is not an instance method taking one extension");
+            }
+
+            methods.add(method);
+        }
+
+        if (null == constructor && methods.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<ExtensionDependency> constructorDependencies = new ArrayList<>();
+        Class<?>[] constructorTypes = null;
+        if (null != constructor) {
+            constructorTypes = constructor.getParameterTypes();
+            Annotation[][] parameterAnnotations = constructor.getParameterAnnotations();
+            for (int i = 0; i < constructorTypes.length; i++) {
+                Inject inject = findInject(parameterAnnotations[i]);
+                constructorDependencies.add(dependency(implClass, constructorTypes[i], null == inject ? "" : inject.value(), constructor));
+            }
+        }
+
+        // Declaration order is not retained by reflection: setters are called by name, then by parameter type.
+        methods.sort(Comparator.comparing(Method::getName).thenComparing(method -> method.getParameterTypes()[0].getName()));
+        List<ExtensionDependency> setterDependencies = new ArrayList<>(methods.size());
+        MethodHandle[] setters = new MethodHandle[methods.size()];
+        for (int i = 0; i < setters.length; i++) {
+            Method method = methods.get(i);
+            setterDependencies.add(dependency(implClass, method.getParameterTypes()[0], method.getAnnotation(Inject.class).value(), method));
+            try {
+                setters[i] = LOOKUP.unreflect(method).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Extension class: " + implClass.getName() + " @Inject method: " + method.getName() + " is not accessible", e);
+            }
+        }
+
+        return new ExtensionInjectionPlan(constructorTypes, Collections.unmodifiableList(constructorDependencies),
+                Collections.unmodifiableList(setterDependencies), setters);
+    }
+
+    private static ExtensionDependency dependency(final Class<?> implClass, final Class<?> type, final String name, final Object site) {
+        if (!type.isInterface()) {
+            throw new IllegalStateException("Extension class: " + implClass.getName() + " @Inject point: " + site
+                    + " takes " + type.getName() + ", which is not an extension interface");
+        }
+
+        return new ExtensionDependency(type, name);
+    }
+
+    private static Inject findInject(final Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Inject) {
+                return (Inject) annotation;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.instantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * {@code ExtensionInstantiators}
+ * <p>
+ * Resolves a constructor once and binds it to a {@link MethodHandle}, so that creating an instance
+ * no longer pays for {@code getDeclaredConstructor} lookups and reflective access checks.
+ * <p>
+ * {@code LambdaMetafactory} is deliberately not used: the spun lambda class is defined in the
+ * {@code ClassLoader} of this library, which cannot see extensions living in child plugin loaders.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionInstantiators {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType NO_ARG_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private ExtensionInstantiators() {
+        throw new AssertionError("No " + ExtensionInstantiators.class.getName() + " instances for you!");
+    }
+
+    // ----------------------------------------------------------------
+
+    public static <T> ExtensionInstantiator<T> create(final Class<T> targetClass, final Class<?> implClass)
+            throws NoSuchMethodException, IllegalAccessException {
+        return create(targetClass, implClass, null);
+    }
+
+    public static <T> ExtensionInstantiator<T> create(final Class<T> targetClass, final Class<?> implClass, final Class<?>[] types)
+            throws NoSuchMethodException, IllegalAccessException {
+        if (!targetClass.isAssignableFrom(implClass)) {
+            throw new IllegalArgumentException("Extension class: " + implClass + " is not subtype of " + targetClass);
+        }
+
+        Constructor<?> constructor = null == types ? implClass.getDeclaredConstructor() : implClass.getDeclaredConstructor(types);
+        MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+
+        if (0 == constructor.getParameterCount()) {
+            return new NoArgExtensionInstantiator<>(handle.asType(NO_ARG_TYPE));
+        }
+
+        return new SpreadExtensionInstantiator<>(handle.asSpreader(Object[].class, constructor.getParameterCount()).asType(SPREAD_TYPE));
+    }
+
+    // ----------------------------------------------------------------
+
+    private static final class NoArgExtensionInstantiator<T> implements ExtensionInstantiator<T> {
+
+        private final MethodHandle handle;
+
+        private NoArgExtensionInstantiator(final MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T instantiate(final Object[] args) throws Throwable {
+            return (T) (Object) this.handle.invokeExact();
+        }
+    }
+
+    private static final class SpreadExtensionInstantiator<T> implements ExtensionInstantiator<T> {
+
+        private final MethodHandle handle;
+
+        private SpreadExtensionInstantiator(final MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T instantiate(final Object[] args) throws Throwable {
+            return (T) (Object) this.handle.invokeExact(args);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.lifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionLifeCycleRecord}
+ * <p>
+ * The outcome of one lifecycle step (such as preloading or stopping) of a single extension.
+ * A step that did not finish within its timeout is recorded as timed out, with a {@code TimeoutException} as failure.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionLifeCycleRecord {
+
+    private final Class<?> targetClass;
+    private final String name;
+    private final String className;
+    private final int order;
+    private final long durationNanos;
+    private final Throwable failure;
+    private final boolean timedOut;
+
+    public ExtensionLifeCycleRecord(
+            final Class<?> targetClass,
+            final String name,
+            final String className,
+            final int order,
+            final long durationNanos,
+            final Throwable failure) {
+        this(targetClass, name, className, order, durationNanos, failure, false);
+    }
+
+    public ExtensionLifeCycleRecord(
+            final Class<?> targetClass,
+            final String name,
+            final String className,
+            final int order,
+            final long durationNanos,
+            final Throwable failure,
+            final boolean timedOut) {
+        this.targetClass = targetClass;
+        this.name = name;
+        this.className = className;
+        this.order = order;
+        this.durationNanos = durationNanos;
+        this.failure = failure;
+        this.timedOut = timedOut;
+    }
+
+    public Class<?> getTargetClass() {
+        return this.targetClass;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getClassName() {
+        return this.className;
+    }
+
+    public int getOrder() {
+        return this.order;
+    }
+
+    public long getDurationNanos() {
+        return this.durationNanos;
+    }
+
+    public long getDuration(final TimeUnit unit) {
+        return unit.convert(this.durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    public boolean isSuccess() {
+        return null == this.failure;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtensionLifeCycleRecord{" +
+                "targetClass=" + targetClass.getName() +
+                ", name='" + name + '\'' +
+                ", className='" + className + '\'' +
+                ", order=" + order +
+                ", durationNanos=" + durationNanos +
+                ", failure=" + failure +
+                ", timedOut=" + timedOut +
+                '}';
+    }
+}
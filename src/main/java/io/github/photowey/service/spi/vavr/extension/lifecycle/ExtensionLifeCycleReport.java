@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.lifecycle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ExtensionLifeCycleReport}
+ * <p>
+ * The per-extension records of a lifecycle run over one or more extension interfaces, together with its wall-clock time.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionLifeCycleReport {
+
+    private final List<ExtensionLifeCycleRecord> records;
+    private final long elapsedNanos;
+
+    public ExtensionLifeCycleReport(final List<ExtensionLifeCycleRecord> records, final long elapsedNanos) {
+        this.records = Collections.unmodifiableList(new ArrayList<>(records));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<ExtensionLifeCycleRecord> getRecords() {
+        return this.records;
+    }
+
+    public List<ExtensionLifeCycleRecord> getFailures() {
+        List<ExtensionLifeCycleRecord> failures = new ArrayList<>();
+        for (ExtensionLifeCycleRecord record : this.records) {
+            if (!record.isSuccess()) {
+                failures.add(record);
+            }
+        }
+
+        return failures;
+    }
+
+    public List<ExtensionLifeCycleRecord> getTimedOut() {
+        List<ExtensionLifeCycleRecord> timedOut = new ArrayList<>();
+        for (ExtensionLifeCycleRecord record : this.records) {
+            if (record.isTimedOut()) {
+                timedOut.add(record);
+            }
+        }
+
+        return timedOut;
+    }
+
+    public boolean isSuccess() {
+        for (ExtensionLifeCycleRecord record : this.records) {
+            if (!record.isSuccess()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(this.elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "ExtensionLifeCycleReport{" +
+                "records=" + records +
+                ", elapsedNanos=" + elapsedNanos +
+                '}';
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.loader;
+
+import io.github.photowey.service.spi.vavr.core.annotation.Adaptive;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code AdaptiveExtensionHandler}
+ * <p>
+ * Backs the proxy of {@link ExtensionLoader#adaptive(ClassLoader)}. The {@link Adaptive} methods of the interface are
+ * read once, into the argument to take the extension name from; the names and holders of the registry are copied once
+ * into a dispatch table, rebuilt only when the loader replaces or drops a registry, on reload or release.
+ * <p>
+ * The table also holds a dispatch array per {@code @Adaptive} method, resolved against the name table when it is built:
+ * the handle of its {@link Adaptive#defaultName()}, and for an enum argument the handle of every constant, by ordinal.
+ * Such calls do no name lookup at all. A call with any other argument compares its name against the interned names of
+ * the table by reference, which is how constant names match, before falling back to the hashed name table. The holder
+ * found yields the singleton with one volatile read.
+ * <p>
+ * The default methods of the interface run their own body on the proxy, so the {@code @Adaptive} methods they call are
+ * dispatched as well. An abstract method without {@code @Adaptive} has nothing to run, so the interface is rejected
+ * when the proxy is created. A {@code null} argument selects the {@link Adaptive#defaultName()}, while an empty name
+ * names no extension.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+final class AdaptiveExtensionHandler<T> implements InvocationHandler {
+
+    /**
+     * Up to this many extensions, names are compared by reference before hashing.
+     */
+    private static final int LINEAR_SCAN_LIMIT = 8;
+    /**
+     * The dispatch array entry of a method without {@link Adaptive#defaultName()}: the default extension of the registry.
+     */
+    private static final int DEFAULT_EXTENSION = -2;
+
+    private final ExtensionLoader<T> loader;
+    private final ClassLoader classLoader;
+    private final Map<Method, AdaptiveMethod> adaptiveMethods;
+    /**
+     * The bodies of the default methods, {@code (Object proxy, Object[] args)Object}.
+     */
+    private final Map<Method, MethodHandle> defaultMethods;
+    /**
+     * The {@link #adaptiveMethods} resolved so far, by the {@code Method} instances the proxy passes in: the proxy class
+     * holds one per method, so they are matched by identity. Copied on write.
+     */
+    private volatile AdaptiveMethod[] proxyMethods = new AdaptiveMethod[0];
+
+    private volatile Dispatch<T> dispatch;
+
+    AdaptiveExtensionHandler(final ExtensionLoader<T> loader, final ClassLoader classLoader) {
+        this.loader = loader;
+        this.classLoader = classLoader;
+        this.adaptiveMethods = adaptiveMethods(loader.getTargetClass());
+        this.defaultMethods = defaultMethods(loader.getTargetClass());
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        AdaptiveMethod adaptive = this.proxyMethod(method);
+        if (null == adaptive) {
+            return this.invokeUnadaptive(proxy, method, args);
+        }
+
+        return adaptive.invoker.invoke(this.select(adaptive, args[adaptive.argument]), args);
+    }
+
+    // ----------------------------------------------------------------
+
+    private AdaptiveMethod proxyMethod(final Method method) {
+        AdaptiveMethod[] proxyMethods = this.proxyMethods;
+        for (AdaptiveMethod proxyMethod : proxyMethods) {
+            if (proxyMethod.proxyMethod == method) {
+                return proxyMethod;
+            }
+        }
+
+        AdaptiveMethod adaptive = this.adaptiveMethods.get(method);
+        if (null == adaptive) {
+            return null;
+        }
+
+        AdaptiveMethod resolved = adaptive.forProxyMethod(method);
+        AdaptiveMethod[] grown = Arrays.copyOf(proxyMethods, proxyMethods.length + 1);
+        grown[proxyMethods.length] = resolved;
+        this.proxyMethods = grown;
+
+        return resolved;
+    }
+
+    /**
+     * @param key the argument naming the extension; when {@code null}, the {@link Adaptive#defaultName()}
+     */
+    private T select(final AdaptiveMethod adaptive, final Object key) {
+        Dispatch<T> dispatch = this.dispatch();
+        int handle;
+        if (null == key) {
+            handle = dispatch.defaultHandles[adaptive.slot];
+            if (DEFAULT_EXTENSION == handle) {
+                return this.require(dispatch.registry.load(), adaptive, null);
+            }
+        } else if (null != adaptive.enumConstants) {
+            handle = dispatch.enumHandles[adaptive.slot][((Enum<?>) key).ordinal()];
+        } else {
+            String name = key.toString();
+            handle = name.isEmpty() ? ExtensionNameTable.NOT_FOUND : dispatch.indexOf(name);
+        }
+        if (ExtensionNameTable.NOT_FOUND == handle) {
+            throw this.notFound(null == key ? adaptive.defaultName : key.toString());
+        }
+
+        T instance = dispatch.holders[handle].getInstance();
+
+        return null != instance ? instance : this.require(dispatch.registry.get(handle), adaptive, key);
+    }
+
+    private Dispatch<T> dispatch() {
+        Dispatch<T> dispatch = this.dispatch;
+        int generation = this.loader.generation();
+        if (null == dispatch || dispatch.generation != generation) {
+            dispatch = new Dispatch<>(this.loader.currentRegistry(this.classLoader), generation, this.adaptiveMethods.values());
+            this.dispatch = dispatch;
+        }
+
+        return dispatch;
+    }
+
+    private T require(final T instance, final AdaptiveMethod adaptive, final Object key) {
+        if (null == instance) {
+            throw this.notFound(null == key ? adaptive.defaultName : key.toString());
+        }
+
+        return instance;
+    }
+
+    private IllegalStateException notFound(final String name) {
+        return new IllegalStateException(String.format("Adaptive %s found no extension named: [%s]", this.loader.getTargetClass().getName(), name));
+    }
+
+    private Object invokeUnadaptive(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (Object.class == method.getDeclaringClass()) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "Adaptive(" + this.loader.getTargetClass().getName() + ")";
+            }
+        }
+
+        MethodHandle body = this.defaultMethods.get(method);
+        if (null == body) {
+            throw new UnsupportedOperationException(String.format("Method %s of %s is not @Adaptive", method.getName(), this.loader.getTargetClass().getName()));
+        }
+
+        return body.invoke(proxy, null != args ? args : new Object[0]);
+    }
+
+    private static Map<Method, AdaptiveMethod> adaptiveMethods(final Class<?> targetClass) {
+        Map<Method, AdaptiveMethod> adaptiveMethods = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            Adaptive adaptive = method.getAnnotation(Adaptive.class);
+            if (null == adaptive) {
+                continue;
+            }
+            if (adaptive.value() < 0 || adaptive.value() >= method.getParameterCount()) {
+                throw new IllegalArgumentException(String.format("@Adaptive method %s of %s has no argument %d",
+                        method.getName(), targetClass.getName(), adaptive.value()));
+            }
+
+            adaptiveMethods.put(method, new AdaptiveMethod(method, adaptive, adaptiveMethods.size()));
+        }
+
+        if (adaptiveMethods.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Extension %s has no @Adaptive method", targetClass.getName()));
+        }
+
+        return adaptiveMethods;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an abstract method is not {@code @Adaptive}, or a default method is not accessible
+     */
+    private static Map<Method, MethodHandle> defaultMethods(final Class<?> targetClass) {
+        Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (method.isAnnotationPresent(Adaptive.class) || Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (!method.isDefault()) {
+                throw new IllegalArgumentException(String.format("Method %s of %s is neither @Adaptive nor a default method",
+                        method.getName(), targetClass.getName()));
+            }
+
+            try {
+                Class<?> declaringClass = method.getDeclaringClass();
+                defaultMethods.put(method, privateLookup(declaringClass).unreflectSpecial(method, declaringClass)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class)));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException(String.format("Default method %s of %s is not accessible",
+                        method.getName(), targetClass.getName()), e);
+            }
+        }
+
+        return defaultMethods;
+    }
+
+    /**
+     * @return a lookup with private access to the interface, as {@code unreflectSpecial} requires
+     */
+    private static MethodHandles.Lookup privateLookup(final Class<?> type) throws ReflectiveOperationException {
+        Method privateLookupIn;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            // Java 8 has no privateLookupIn, but a private constructor taking the lookup class and its access modes.
+            Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            constructor.setAccessible(true);
+
+            return constructor.newInstance(type, MethodHandles.Lookup.PRIVATE);
+        }
+
+        try {
+            return (MethodHandles.Lookup) privateLookupIn.invoke(null, type, MethodHandles.lookup());
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof ReflectiveOperationException ? (ReflectiveOperationException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @return {@code true} if the method redeclares a public method of {@code Object}, which the proxy answers itself
+     */
+    private static boolean isObjectMethod(final Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * An {@link Adaptive} method, read once: the annotation itself is a proxy, and {@code Method.invoke} checks access on every call.
+     */
+    private static final class AdaptiveMethod {
+
+        private final Method proxyMethod;
+        /**
+         * The index of the method in the dispatch arrays.
+         */
+        private final int slot;
+        private final int argument;
+        private final String defaultName;
+        /**
+         * The constants of the argument type, {@code null} unless it is an enum.
+         */
+        private final Object[] enumConstants;
+        /**
+         * {@code (Object target, Object[] args)Object}
+         */
+        private final MethodHandle invoker;
+
+        private AdaptiveMethod(final Method proxyMethod, final AdaptiveMethod adaptive) {
+            this.proxyMethod = proxyMethod;
+            this.slot = adaptive.slot;
+            this.argument = adaptive.argument;
+            this.defaultName = adaptive.defaultName;
+            this.enumConstants = adaptive.enumConstants;
+            this.invoker = adaptive.invoker;
+        }
+
+        private AdaptiveMethod(final Method method, final Adaptive adaptive, final int slot) {
+            this.proxyMethod = method;
+            this.slot = slot;
+            this.argument = adaptive.value();
+            this.defaultName = adaptive.defaultName();
+            Class<?> argumentType = method.getParameterTypes()[this.argument];
+            this.enumConstants = argumentType.isEnum() ? argumentType.getEnumConstants() : null;
+            try {
+                this.invoker = MethodHandles.publicLookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(String.format("@Adaptive method %s of %s is not accessible",
+                        method.getName(), method.getDeclaringClass().getName()), e);
+            }
+        }
+
+        private AdaptiveMethod forProxyMethod(final Method proxyMethod) {
+            return new AdaptiveMethod(proxyMethod, this);
+        }
+    }
+
+    private static final class Dispatch<T> {
+
+        private final ExtensionRegistry<T> registry;
+        private final int generation;
+        private final ExtensionNameTable<T> nameTable;
+        private final String[] names;
+        private final ExtensionHolder<T>[] holders;
+        /**
+         * By method slot: the handle of the default name, or {@link #DEFAULT_EXTENSION}.
+         */
+        private final int[] defaultHandles;
+        /**
+         * By method slot, then by ordinal: the handle of each enum constant; {@code null} for other argument types.
+         */
+        private final int[][] enumHandles;
+
+        @SuppressWarnings("unchecked")
+        private Dispatch(final ExtensionRegistry<T> registry, final int generation, final Collection<AdaptiveMethod> methods) {
+            this.registry = registry;
+            this.generation = generation;
+            this.nameTable = registry.nameTable();
+            this.names = new String[this.nameTable.size()];
+            this.holders = (ExtensionHolder<T>[]) new ExtensionHolder<?>[this.nameTable.size()];
+            for (int handle = 0; handle < this.names.length; handle++) {
+                this.holders[handle] = this.nameTable.get(handle);
+                this.names[handle] = this.holders[handle].getEntity().getName().intern();
+            }
+
+            this.defaultHandles = new int[methods.size()];
+            this.enumHandles = new int[methods.size()][];
+            for (AdaptiveMethod method : methods) {
+                this.defaultHandles[method.slot] = method.defaultName.isEmpty() ? DEFAULT_EXTENSION : this.handleOf(method.defaultName);
+                if (null != method.enumConstants) {
+                    int[] handles = new int[method.enumConstants.length];
+                    for (int ordinal = 0; ordinal < handles.length; ordinal++) {
+                        handles[ordinal] = this.handleOf(method.enumConstants[ordinal].toString());
+                    }
+                    this.enumHandles[method.slot] = handles;
+                }
+            }
+        }
+
+        private int handleOf(final String name) {
+            return name.isEmpty() ? ExtensionNameTable.NOT_FOUND : this.nameTable.indexOf(name);
+        }
+
+        private int indexOf(final String name) {
+            String[] names = this.names;
+            if (names.length <= LINEAR_SCAN_LIMIT) {
+                for (int handle = 0; handle < names.length; handle++) {
+                    if (names[handle] == name) {
+                        return handle;
+                    }
+                }
+            }
+
+            return this.nameTable.indexOf(name);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.loader;
+
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionEntity;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.extension.instantiator.ExtensionInstantiator;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionPool;
+import io.github.photowey.service.spi.vavr.extension.scope.ExtensionScope;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code ExtensionHolder}
+ * <p>
+ * Created once per {@link ExtensionEntity} when it is registered, it carries everything the lookup hot path
+ * needs: the singleton instance behind a single volatile read, and the resolved instantiator, injecting or not.
+ * Singleton creation takes the lock of the holder, so a slow {@code init()} only blocks callers of the same extension;
+ * it is a {@link ReentrantLock} rather than a monitor, so that a virtual thread waiting on it does not pin its carrier.
+ * <p>
+ * In lazy mode the entity starts as a descriptor: its class name and source are always known, its name, order and
+ * scope only when they came from the extension index. The class is loaded when the holder is first resolved.
+ * <p>
+ * {@code THREAD} scope instances are kept by each thread, and tracked weakly by the holder, so that stopping the
+ * holder can stop them and detach them from every thread, pooled ones included, which then create a new instance.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+final class ExtensionHolder<T> {
+
+    private volatile ExtensionEntity entity;
+    private volatile boolean singleton;
+    private volatile boolean pooled;
+    private volatile boolean threadScoped;
+    private volatile boolean customScoped;
+    private volatile boolean failed;
+
+    private volatile T instance;
+    private volatile ExtensionInstantiator<T> instantiator;
+    private volatile ExtensionPool<T> pool;
+    private final ThreadLocal<ThreadInstance<T>> threadInstance = new ThreadLocal<>();
+    /**
+     * The {@code THREAD} scope instances created so far, reachable only from their thread; guarded by the lock.
+     */
+    private final List<WeakReference<ThreadInstance<T>>> threadInstances = new ArrayList<>();
+    private volatile ExtensionScope customScope;
+    private volatile String scopeId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * The asynchronous creation of the singleton in flight, shared by all callers until it completes.
+     */
+    private final AtomicReference<CompletableFuture<T>> creation = new AtomicReference<>();
+
+    ExtensionHolder(final ExtensionEntity entity) {
+        this.setEntity(entity);
+    }
+
+    ReentrantLock getLock() {
+        return this.lock;
+    }
+
+    AtomicReference<CompletableFuture<T>> getCreation() {
+        return this.creation;
+    }
+
+    ExtensionEntity getEntity() {
+        return this.entity;
+    }
+
+    void setEntity(final ExtensionEntity entity) {
+        this.entity = entity;
+        this.singleton = Scoped.SINGLETON.equals(entity.getScope());
+        this.pooled = Scoped.POOLED.equals(entity.getScope());
+        this.threadScoped = Scoped.THREAD.equals(entity.getScope());
+        this.customScoped = Scoped.CUSTOM.equals(entity.getScope());
+    }
+
+    String getClassName() {
+        return this.entity.getClassName();
+    }
+
+    /**
+     * @return {@code true} once name, order and scope are known
+     */
+    boolean isDescribed() {
+        return null != this.entity.getScope();
+    }
+
+    /**
+     * @return {@code true} once the extension class is loaded
+     */
+    boolean isResolved() {
+        return null != this.entity.getTargetClass();
+    }
+
+    boolean isFailed() {
+        return this.failed;
+    }
+
+    void markFailed() {
+        this.failed = true;
+    }
+
+    boolean isSingleton() {
+        return this.singleton;
+    }
+
+    boolean isPooled() {
+        return this.pooled;
+    }
+
+    boolean isThreadScoped() {
+        return this.threadScoped;
+    }
+
+    boolean isCustomScoped() {
+        return this.customScoped;
+    }
+
+    T getInstance() {
+        return this.instance;
+    }
+
+    void setInstance(final T instance) {
+        this.instance = instance;
+    }
+
+    ExtensionInstantiator<T> getInstantiator() {
+        return this.instantiator;
+    }
+
+    void setInstantiator(final ExtensionInstantiator<T> instantiator) {
+        this.instantiator = instantiator;
+    }
+
+    ExtensionPool<T> getPool() {
+        return this.pool;
+    }
+
+    void setPool(final ExtensionPool<T> pool) {
+        this.pool = pool;
+    }
+
+    T getThreadInstance() {
+        ThreadInstance<T> threadInstance = this.threadInstance.get();
+
+        return null != threadInstance ? threadInstance.instance : null;
+    }
+
+    void setThreadInstance(final T instance) {
+        ThreadInstance<T> threadInstance = new ThreadInstance<>(instance);
+        this.lock.lock();
+        try {
+            this.threadInstances.removeIf(reference -> null == reference.get());
+            this.threadInstances.add(new WeakReference<>(threadInstance));
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.threadInstance.set(threadInstance);
+    }
+
+    boolean hasThreadInstances() {
+        this.lock.lock();
+        try {
+            return !this.threadInstances.isEmpty();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Detaches the {@code THREAD} scope instances from every thread holding one.
+     *
+     * @return the instances still held by a thread
+     */
+    List<T> clearThreadInstances() {
+        List<T> instances = new ArrayList<>();
+        this.lock.lock();
+        try {
+            for (WeakReference<ThreadInstance<T>> reference : this.threadInstances) {
+                ThreadInstance<T> threadInstance = reference.get();
+                if (null != threadInstance && null != threadInstance.instance) {
+                    instances.add(threadInstance.instance);
+                    threadInstance.instance = null;
+                }
+            }
+            this.threadInstances.clear();
+        } finally {
+            this.lock.unlock();
+        }
+        this.threadInstance.remove();
+
+        return instances;
+    }
+
+    ExtensionScope getCustomScope() {
+        return this.customScope;
+    }
+
+    String getScopeId() {
+        return this.scopeId;
+    }
+
+    /**
+     * Publishes the id before the scope, so that whoever sees the latter also sees the former.
+     */
+    void setCustomScope(final ExtensionScope customScope, final String scopeId) {
+        this.scopeId = scopeId;
+        this.customScope = customScope;
+    }
+
+    /**
+     * The slot a thread keeps its instance in; emptied when the holder is stopped, so that the thread no longer holds it.
+     */
+    private static final class ThreadInstance<T> {
+
+        private volatile T instance;
+
+        private ThreadInstance(final T instance) {
+            this.instance = instance;
+        }
+    }
+}
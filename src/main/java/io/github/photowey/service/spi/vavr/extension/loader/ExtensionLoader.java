@@ -15,27 +15,30 @@
  */
 package io.github.photowey.service.spi.vavr.extension.loader;
 
-import io.github.photowey.service.spi.vavr.core.annotation.SPI;
-import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionEntity;
-import io.github.photowey.service.spi.vavr.core.enums.Scoped;
 import io.github.photowey.service.spi.vavr.extension.generator.DefaultExtensionNameGenerator;
 import io.github.photowey.service.spi.vavr.extension.generator.ExtensionNameGenerator;
-import io.github.photowey.service.spi.vavr.extension.lifecycle.InitializeLifeCycle;
-import io.github.photowey.service.spi.vavr.extension.lifecycle.LifeCycle;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.net.URL;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionScanCache;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleRecord;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionLease;
+
+import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * {@code ExtensionLoader}
+ * <p>
+ * Extensions are registered per {@code ClassLoader}: every distinct loader passed to {@code load}/{@code loads}
+ * gets its own {@link ExtensionRegistry}, with its own scan result and singletons. Registries never keep their loader
+ * reachable: once one holds classes defined by its loader, it is held through that loader only, so a discarded plugin
+ * loader is collected along with its registries and singletons. {@link #release(ClassLoader)} stops them right away.
+ * A {@code null} loader stands for the system {@code ClassLoader}.
+ * <p>
+ * After {@link #freezeAll()} every registry is replaced by a {@link FrozenExtensionRegistry}; new interfaces,
+ * new {@code ClassLoader}s and {@link #release(ClassLoader)} then fail with an {@link IllegalStateException}.
  *
  * @author photowey
  * @date 2023/11/05
@@ -43,17 +46,22 @@ import java.util.stream.Collectors;
  */
 public final class ExtensionLoader<T> {
 
-    private static final Logger log = LoggerFactory.getLogger(ExtensionLoader.class);
-
-    private static final String EXTENSION_DIRECTORY = "META-INF/extensions/";
-
     private static final Map<Class<?>, ExtensionLoader<?>> CLASS_LOADERS = new ConcurrentHashMap<>();
-
-    private final TypeHolder<List<ExtensionEntity>> entitiesHolder = new TypeHolder<>();
-    private final Map<String, TypeHolder<T>> cachedSingletonInstances = new ConcurrentHashMap<>();
-
-    private final Map<String, ExtensionEntity> nameToEntityMap = new ConcurrentHashMap<>();
-    private final Map<Class<?>, ExtensionEntity> classToEntityMap = new ConcurrentHashMap<>();
+    private static final ReentrantLock FREEZE_LOCK = new ReentrantLock();
+    private static volatile boolean frozen;
+    /**
+     * Set under the freeze lock while {@link #freezeAll()} runs, before its passes over the loaders.
+     */
+    private static volatile boolean freezing;
+
+    private final Map<ClassLoader, ExtensionRegistry.RegistryReference<T>> registries = new WeakHashMap<>();
+    private final ReentrantLock registriesLock = new ReentrantLock();
+    private volatile ExtensionRegistry.RegistryReference<T> lastRegistry;
+    private volatile FrozenExtensionRegistry<T>[] frozenRegistries;
+    /**
+     * Incremented whenever a registry is replaced or dropped, so that adaptive proxies know to rebuild their dispatch table.
+     */
+    private volatile int generation;
 
     private final ExtensionNameGenerator extensionNameGenerator;
 
@@ -84,17 +92,84 @@ public final class ExtensionLoader<T> {
         if (null != loader) {
             return loader;
         }
+        if (frozen) {
+            throw frozenLoadersException(targetClass);
+        }
 
         CLASS_LOADERS.putIfAbsent(targetClass, new ExtensionLoader<>(targetClass));
-        return (ExtensionLoader<T>) CLASS_LOADERS.get(targetClass);
+        loader = (ExtensionLoader<T>) CLASS_LOADERS.get(targetClass);
+        // Registered while freezeAll() runs on another thread: its last pass may have missed the loader, so wait for it.
+        if ((freezing || frozen) && !FREEZE_LOCK.isHeldByCurrentThread()) {
+            FREEZE_LOCK.lock();
+            try {
+                if (frozen && null == loader.frozenRegistries) {
+                    CLASS_LOADERS.remove(targetClass, loader);
+                    throw frozenLoadersException(targetClass);
+                }
+            } finally {
+                FREEZE_LOCK.unlock();
+            }
+        }
+
+        return loader;
+    }
+
+    /**
+     * Freezes every loader: all singletons of every registry are created, and each registry is compiled into its
+     * read-only form. Meant to be called once startup is complete; it cannot be undone. An interface first looked up by
+     * another thread while it runs is either frozen along with the others or rejected, like any interface looked up later.
+     */
+    public static void freezeAll() {
+        FREEZE_LOCK.lock();
+        try {
+            freezing = true;
+            // Singletons created while freezing may still look up interfaces that were not used before.
+            Set<ExtensionLoader<?>> frozenLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+            boolean pending = true;
+            while (pending) {
+                pending = false;
+                for (ExtensionLoader<?> loader : new ArrayList<>(CLASS_LOADERS.values())) {
+                    if (frozenLoaders.add(loader)) {
+                        loader.freeze();
+                        pending = true;
+                    }
+                }
+            }
+
+            frozen = true;
+        } finally {
+            freezing = false;
+            FREEZE_LOCK.unlock();
+        }
+
+        // Startup is complete: write the scan results collected so far rather than waiting for shutdown.
+        ExtensionScanCache.flush();
+    }
+
+    public static boolean isFrozen() {
+        return frozen;
+    }
+
+    public Class<T> getTargetClass() {
+        return this.targetClass;
     }
 
     public T load(final ClassLoader loader) {
-        return this.loadExtension(loader);
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.load();
+        }
+
+        return this.registry(loader).load();
     }
 
     public T load(final String name, final ClassLoader loader) {
-        return this.loadExtension(name, loader, null, null);
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.load(name);
+        }
+
+        return this.registry(loader).load(name, null, null);
     }
 
     public T load(final String name, final Object[] args, final ClassLoader loader) {
@@ -106,281 +181,313 @@ public final class ExtensionLoader<T> {
             }
         }
 
-        return this.loadExtension(name, loader, types, args);
+        return this.currentRegistry(loader).load(name, types, args);
     }
 
     public T load(final String name, final Class<?>[] types, final Object[] args, final ClassLoader loader) {
-        return this.loadExtension(name, loader, types, args);
-    }
-
-    public List<T> loads(final ClassLoader loader) {
-        return this.loads(null, null, loader);
+        return this.currentRegistry(loader).load(name, types, args);
     }
 
-    public void stop() {
-        for (Map.Entry<String, TypeHolder<T>> entry : this.cachedSingletonInstances.entrySet()) {
-            TypeHolder<T> holder = entry.getValue();
-            T target = holder.getValue();
-            if (target instanceof InitializeLifeCycle) {
-                ((InitializeLifeCycle) target).stop();
-            }
+    /**
+     * Resolves an extension name once into a handle, so that hot paths can {@link #get(int, ClassLoader)} by handle
+     * without hashing the name. Handles are only valid for the same {@code ClassLoader}.
+     *
+     * @return the handle, or {@code -1} if there is no extension with that name
+     */
+    public int indexOf(final String name, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.indexOf(name);
         }
+
+        return this.registry(loader).indexOf(name);
     }
 
-    private List<T> loads(final Class<?>[] types, final Object[] args, final ClassLoader loader) {
-        List<Class<?>> all = this.getAllExtensionClass(loader);
-        if (all.isEmpty()) {
-            return Collections.emptyList();
+    public T get(final int handle, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.get(handle);
         }
-        return all.stream().map(targetClass -> {
-            ExtensionEntity entity = this.classToEntityMap.get(targetClass);
-            return this.getExtensionInstance(entity, types, args);
-        }).collect(Collectors.toList());
-    }
 
-    private List<Class<?>> getAllExtensionClass(final ClassLoader loader) {
-        return this.loadAllExtensionClass(loader);
+        return this.registry(loader).get(handle);
     }
 
-    private T loadExtension(final ClassLoader loader) {
-        this.loadAllExtensionClass(loader);
-        ExtensionEntity extensionEntity = this.getDefaultExtensionEntity();
-        return this.getExtensionInstance(extensionEntity, null, null);
-    }
+    public List<T> loads(final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.loads();
+        }
 
-    private T loadExtension(final String name, final ClassLoader loader, final Class<?>[] types, final Object[] args) {
-        this.loadAllExtensionClass(loader);
-        ExtensionEntity entity = this.getCachedExtensionEntity(name);
-        return this.getExtensionInstance(entity, types, args);
+        return this.registry(loader).loads();
     }
 
-    private T getExtensionInstance(final ExtensionEntity entity, final Class<?>[] types, final Object[] args) {
-        if (entity == null) {
-            log.error("Not found target service implements for class:[{}]", this.targetClass.getName());
-            return null;
+    /**
+     * @return the active extensions of the {@link io.github.photowey.service.spi.vavr.core.annotation.SPI#group()}, sorted by order
+     */
+    public List<T> loads(final String group, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.loads(group);
         }
 
-        if (Scoped.SINGLETON.equals(entity.getScope())) {
-            String entityName = entity.getName();
-            if (null == entityName) {
-                entityName = this.extensionNameGenerator.generate(entity.getTargetClass());
-            }
-
-            TypeHolder<T> holder = this.cachedSingletonInstances.get(entityName);
-            if (holder == null) {
-                this.cachedSingletonInstances.putIfAbsent(entityName, new TypeHolder<>());
-                holder = this.cachedSingletonInstances.get(entityName);
-            }
+        return this.registry(loader).loads(group);
+    }
 
-            T instance = holder.getValue();
-            if (instance == null) {
-                synchronized (this.cachedSingletonInstances) {
-                    instance = holder.getValue();
-                    if (instance == null) {
-                        instance = this.newInstance(entity, types, args);
-                        holder.setValue(instance);
-                    }
-                }
-            }
+    /**
+     * Creates a proxy of the interface that forwards every {@link io.github.photowey.service.spi.vavr.core.annotation.Adaptive}
+     * method call to the extension named by one of its arguments. Meant to be created once and kept.
+     *
+     * @throws IllegalArgumentException if the interface has no {@code @Adaptive} method
+     */
+    public T adaptive(final ClassLoader loader) {
+        ClassLoader classLoader = this.determineClassLoader(loader);
+
+        return this.targetClass.cast(Proxy.newProxyInstance(this.targetClass.getClassLoader(), new Class<?>[]{this.targetClass},
+                new AdaptiveExtensionHandler<>(this, classLoader)));
+    }
 
-            return instance;
+    /**
+     * Leases an instance of a {@code POOLED} extension, to be closed when done with it.
+     *
+     * @return {@code null} if there is no extension by that name
+     * @throws IllegalArgumentException if the extension is not {@code POOLED}
+     */
+    public ExtensionLease<T> acquire(final String name, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return frozenRegistry.getRegistry().acquire(name);
         }
 
-        return this.newInstance(entity, types, args);
+        return this.registry(loader).acquire(name);
     }
 
-    private T newInstance(final ExtensionEntity entity, final Class<?>[] types, final Object[] args) {
-        try {
-            return this.initInstance(entity.getTargetClass(), types, args);
-        } catch (Exception e) {
-            throw new IllegalStateException("Extension new instance(entity: " + entity + ", class: " + this.targetClass + ")  could not be instantiated", e);
+    /**
+     * Loads the named extension, or the default one for a {@code null} name, without blocking: scanning, class loading
+     * and {@code init()} run on the executor, and concurrent calls for the same singleton share one creation.
+     */
+    public CompletableFuture<T> loadAsync(final String name, final Executor executor, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return CompletableFuture.completedFuture(null == name ? frozenRegistry.load() : frozenRegistry.load(name));
         }
-    }
-
-    private ExtensionEntity getDefaultExtensionEntity() {
-        return this.entitiesHolder.getValue().stream().findFirst().orElse(null);
-    }
 
-    private ExtensionEntity getCachedExtensionEntity(final String name) {
-        return this.nameToEntityMap.get(name);
+        return this.registry(loader).loadAsync(name, executor);
     }
 
-    private List<Class<?>> loadAllExtensionClass(final ClassLoader loader) {
-        List<ExtensionEntity> entities = this.entitiesHolder.getValue();
-        if (null == entities) {
-            synchronized (this.entitiesHolder) {
-                entities = this.entitiesHolder.getValue();
-                if (null == entities) {
-                    entities = this.findAllExtensionEntity(loader);
-                    this.entitiesHolder.setValue(entities);
-                }
-            }
+    public CompletableFuture<List<T>> loadsAsync(final Executor executor, final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+        if (null != frozenRegistry) {
+            return CompletableFuture.completedFuture(frozenRegistry.loads());
         }
 
-        return entities.stream()
-                .map(ExtensionEntity::getTargetClass)
-                .collect(Collectors.toList());
+        return this.registry(loader).loadsAsync(executor);
     }
 
-    private List<ExtensionEntity> findAllExtensionEntity(final ClassLoader loader) {
-        List<ExtensionEntity> entityList = new ArrayList<>();
-        this.loadDirectory(EXTENSION_DIRECTORY + this.targetClass.getName(), loader, entityList);
-        return entityList.stream()
-                .sorted(Comparator.comparing(ExtensionEntity::getOrder))
-                .collect(Collectors.toCollection(LinkedList::new));
+    /**
+     * Creates and initializes all singletons on the executor, lower {@code @SPI(order)} first.
+     *
+     * @return one future per singleton, completing with its record; never completes exceptionally
+     */
+    public List<CompletableFuture<ExtensionLifeCycleRecord>> preload(final Executor executor, final ClassLoader loader) {
+        return this.registry(loader).preload(executor);
     }
 
-    private void loadDirectory(final String dir, final ClassLoader classLoader, final List<ExtensionEntity> entities) {
-        try {
-            Enumeration<URL> urls = classLoader != null ? classLoader.getResources(dir) : ClassLoader.getSystemResources(dir);
-            if (null != urls) {
-                while (urls.hasMoreElements()) {
-                    URL url = urls.nextElement();
-                    this.loadResources(entities, url, classLoader);
-                }
-            }
-        } catch (IOException e) {
-            log.error("Load @SPI extension class error, dir:[{}]", dir, e);
+    public void stop() {
+        for (ExtensionRegistry<T> registry : this.registries()) {
+            registry.stop();
         }
     }
 
-    private void loadResources(final List<ExtensionEntity> entities, final URL url, final ClassLoader classLoader) {
-        try (InputStream inputStream = url.openStream()) {
-            Properties properties = new Properties();
-            properties.load(inputStream);
-            properties.forEach((k, v) -> {
-                String name = (String) k;
-                if (null != name && !name.isEmpty()) {
-                    try {
-                        this.loadClass(entities, name, classLoader);
-                    } catch (ClassNotFoundException e) {
-                        log.warn("Load @SPI extension:[{}] class failed:[{}]", name, e.getMessage());
-                    }
-                }
-            });
-        } catch (IOException e) {
-            throw new IllegalStateException("Load @SPI extension resources error", e);
+    /**
+     * Stops the {@code LifeCycle} singletons of every registry in reverse {@code @SPI(order)}, running each
+     * {@code stop()} on the executor and waiting at most the timeout for it, and never past the deadline.
+     *
+     * @param timeoutNanos  the maximum time to wait for one extension
+     * @param deadlineNanos the {@link System#nanoTime()} after which remaining extensions are skipped
+     */
+    public List<ExtensionLifeCycleRecord> stop(final Executor executor, final long timeoutNanos, final long deadlineNanos) {
+        List<ExtensionLifeCycleRecord> records = new ArrayList<>();
+        for (ExtensionRegistry<T> registry : this.registries()) {
+            records.addAll(registry.stop(executor, timeoutNanos, deadlineNanos));
         }
+
+        return records;
     }
 
-    private void loadClass(final List<ExtensionEntity> entities, final String className, final ClassLoader loader) throws ClassNotFoundException {
-        if (this.notContainsClazz(className, loader)) {
-            Class<?> implClass = Class.forName(className, true, loader);
-            if (!this.targetClass.isAssignableFrom(implClass)) {
-                throw new IllegalStateException("Load @SPI extension class: " + implClass + " failed, subtype is not of " + this.targetClass);
+    /**
+     * Rescans the extensions of the {@code ClassLoader} and atomically replaces its registry. Callers already holding
+     * the old registry keep working on it; singletons of extensions that are no longer listed are stopped.
+     *
+     * @return {@code true} if extensions were added or removed
+     */
+    public boolean reload(final ClassLoader loader) {
+        ClassLoader classLoader = this.determineClassLoader(loader);
+        ExtensionRegistry<T> previous;
+        ExtensionRegistry<T> next;
+        this.registriesLock.lock();
+        try {
+            if (null != this.frozenRegistries) {
+                throw new IllegalStateException(String.format("Extension loader of %s is frozen, it can not be reloaded", this.targetClass.getName()));
             }
 
-            String entityName = this.extensionNameGenerator.generate(implClass);
-            SPI spi = implClass.getAnnotation(SPI.class);
-            ExtensionEntity.ExtensionEntityBuilder builder = ExtensionEntity.builder()
-                    .name(entityName)
-                    .order(0)
-                    .scope(Scoped.SINGLETON)
-                    .targetClass(implClass);
-
-            if (null != spi) {
-                entityName = spi.value();
-                builder.name(entityName).order(spi.order()).scope(spi.scope());
+            previous = this.registry(this.registries.get(classLoader));
+            if (null == previous) {
+                return false;
             }
 
-            ExtensionEntity ext = builder.build();
-            entities.add(ext);
-
-            this.classToEntityMap.put(implClass, ext);
-
-            if (null != spi) {
-                this.nameToEntityMap.put(entityName, ext);
-            } else {
-                this.nameToEntityMap.put(entityName, ext);
-            }
+            next = previous.reload();
+            this.registries.put(classLoader, next.reference());
+            this.lastRegistry = next.reference();
+            this.generation++;
+        } finally {
+            this.registriesLock.unlock();
         }
-    }
 
-    private boolean notContainsClazz(final String className, final ClassLoader loader) {
-        return !this.containsClazz(className, loader);
-    }
+        previous.stopRemoved(next);
+        previous.unanchor();
 
-    private boolean containsClazz(final String className, final ClassLoader loader) {
-        return this.classToEntityMap.entrySet().stream()
-                .filter(entry -> entry.getKey().getName().equals(className))
-                .anyMatch(entry -> Objects.equals(entry.getValue().getTargetClass().getClassLoader(), loader));
+        return !previous.sameExtensions(next);
     }
 
-    private T initInstance(final Class<?> implClass, final Class<?>[] types, final Object[] args)
-            throws IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
-        T entity;
-
-        if (null != types && null != args) {
-            Constructor<?> constructor = implClass.getDeclaredConstructor(types);
-            entity = this.targetClass.cast(constructor.newInstance(args));
-        } else {
-            entity = this.targetClass.cast(implClass.getDeclaredConstructor().newInstance());
+    /**
+     * Drops the registry of the given {@code ClassLoader} and stops its singletons, so that a discarded plugin loader
+     * and everything it defined can be garbage collected.
+     */
+    public void release(final ClassLoader loader) {
+        if (null != this.frozenRegistries) {
+            throw new IllegalStateException(String.format("Extension loader of %s is frozen, ClassLoader can not be released", this.targetClass.getName()));
         }
 
-        if (entity instanceof LifeCycle) {
-            ((LifeCycle) entity).start();
-            if (entity instanceof InitializeLifeCycle) {
-                ((InitializeLifeCycle) entity).init();
+        ClassLoader classLoader = this.determineClassLoader(loader);
+        ExtensionRegistry<T> registry;
+        this.registriesLock.lock();
+        try {
+            registry = this.registry(this.registries.remove(classLoader));
+            this.generation++;
+            ExtensionRegistry<T> last = this.registry(this.lastRegistry);
+            if (null == last || last.getClassLoader() == classLoader) {
+                this.lastRegistry = null;
             }
+        } finally {
+            this.registriesLock.unlock();
         }
 
-        return entity;
+        if (null != registry) {
+            registry.stop();
+            registry.unanchor();
+        }
     }
 
-    private static class TypeHolder<T> {
+    // ----------------------------------------------------------------
 
-        private volatile T value;
+    @SuppressWarnings("unchecked")
+    private void freeze() {
+        this.registriesLock.lock();
+        try {
+            if (null != this.frozenRegistries) {
+                return;
+            }
 
-        public static <T> TypeHolderBuilder<T> builder() {
-            return new TypeHolderBuilder();
-        }
+            List<FrozenExtensionRegistry<T>> frozenRegistries = new ArrayList<>(this.registries.size());
+            for (ExtensionRegistry<T> registry : this.registries()) {
+                frozenRegistries.add(registry.freeze());
+            }
 
-        public T getValue() {
-            return this.value;
+            this.frozenRegistries = (FrozenExtensionRegistry<T>[]) frozenRegistries.toArray(new FrozenExtensionRegistry<?>[0]);
+        } finally {
+            this.registriesLock.unlock();
         }
+    }
 
-        public void setValue(final T value) {
-            this.value = value;
+    /**
+     * @return the frozen registry of the {@code ClassLoader}, {@code null} while not frozen
+     */
+    private FrozenExtensionRegistry<T> frozenRegistry(final ClassLoader loader) {
+        FrozenExtensionRegistry<T>[] frozenRegistries = this.frozenRegistries;
+        if (null == frozenRegistries) {
+            return null;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof TypeHolder)) return false;
-            TypeHolder<?> that = (TypeHolder<?>) o;
-            return Objects.equals(getValue(), that.getValue());
+        ClassLoader classLoader = null != loader ? loader : ClassLoader.getSystemClassLoader();
+        for (FrozenExtensionRegistry<T> frozenRegistry : frozenRegistries) {
+            if (frozenRegistry.getClassLoader() == classLoader) {
+                return frozenRegistry;
+            }
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(getValue());
-        }
+        throw this.frozenException(classLoader);
+    }
 
-        public TypeHolder() {
-        }
+    private static IllegalStateException frozenLoadersException(final Class<?> targetClass) {
+        return new IllegalStateException(String.format("Extension loaders are frozen, %s can no longer be registered", targetClass.getName()));
+    }
 
-        public TypeHolder(final T value) {
-            this.value = value;
-        }
+    private IllegalStateException frozenException(final ClassLoader classLoader) {
+        return new IllegalStateException(String.format("Extension loader of %s is frozen, no registry for ClassLoader %s",
+                this.targetClass.getName(), classLoader));
+    }
 
-        public static class TypeHolderBuilder<T> {
-            private T value;
+    private ExtensionRegistry<T> registry(final ClassLoader loader) {
+        ClassLoader classLoader = this.determineClassLoader(loader);
+        ExtensionRegistry<T> registry = this.registry(this.lastRegistry);
+        if (null != registry && registry.getClassLoader() == classLoader) {
+            return registry;
+        }
 
-            TypeHolderBuilder() {
+        this.registriesLock.lock();
+        try {
+            if (null != this.frozenRegistries && !this.registries.containsKey(classLoader)) {
+                throw this.frozenException(classLoader);
             }
 
-            public TypeHolderBuilder<T> value(final T value) {
-                this.value = value;
-                return this;
+            registry = this.registry(this.registries.get(classLoader));
+            if (null == registry) {
+                registry = new ExtensionRegistry<>(this.targetClass, classLoader, this.extensionNameGenerator);
+                this.registries.put(classLoader, registry.reference());
             }
+            this.lastRegistry = registry.reference();
+        } finally {
+            this.registriesLock.unlock();
+        }
 
-            public TypeHolder<T> build() {
-                return new TypeHolder(this.value);
-            }
+        return registry;
+    }
 
-            public String toString() {
-                return "ExtensionLoader.TypeHolder.TypeHolderBuilder(value=" + this.value + ")";
+    int generation() {
+        return this.generation;
+    }
+
+    /**
+     * @return the registry lookups of the {@code ClassLoader} currently go to, frozen or not
+     */
+    ExtensionRegistry<T> currentRegistry(final ClassLoader loader) {
+        FrozenExtensionRegistry<T> frozenRegistry = this.frozenRegistry(loader);
+
+        return null != frozenRegistry ? frozenRegistry.getRegistry() : this.registry(loader);
+    }
+
+    private List<ExtensionRegistry<T>> registries() {
+        this.registriesLock.lock();
+        try {
+            List<ExtensionRegistry<T>> registries = new ArrayList<>(this.registries.size());
+            for (ExtensionRegistry.RegistryReference<T> reference : this.registries.values()) {
+                ExtensionRegistry<T> registry = reference.registry();
+                if (null != registry) {
+                    registries.add(registry);
+                }
             }
+
+            return registries;
+        } finally {
+            this.registriesLock.unlock();
         }
     }
+
+    private ExtensionRegistry<T> registry(final ExtensionRegistry.RegistryReference<T> reference) {
+        return null != reference ? reference.registry() : null;
+    }
+
+    private ClassLoader determineClassLoader(final ClassLoader loader) {
+        return null != loader ? loader : ClassLoader.getSystemClassLoader();
+    }
 }
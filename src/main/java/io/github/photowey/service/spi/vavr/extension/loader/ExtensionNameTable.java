@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ExtensionNameTable}
+ * <p>
+ * An immutable, open-addressed (linear probing) name index over the described holders of a registry, built once
+ * the scan is complete. A name resolves to an {@code int} handle, the position of its holder in a dense array, so
+ * callers that keep the handle reach the holder without hashing at all.
+ * <p>
+ * When several extensions share a name, the last one in declaration order wins.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+final class ExtensionNameTable<T> {
+
+    static final int NOT_FOUND = -1;
+
+    private final String[] names;
+    private final ExtensionHolder<T>[] holders;
+    /**
+     * handle + 1 per bucket, {@code 0} marks an empty bucket.
+     */
+    private final int[] buckets;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    ExtensionNameTable(final List<ExtensionHolder<T>> described) {
+        List<String> names = new ArrayList<>(described.size());
+        List<ExtensionHolder<T>> holders = new ArrayList<>(described.size());
+
+        int capacity = tableSizeFor(described.size() * 2);
+        this.buckets = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (ExtensionHolder<T> holder : described) {
+            String name = holder.getEntity().getName();
+            int bucket = this.find(name, names);
+            if (0 == this.buckets[bucket]) {
+                names.add(name);
+                holders.add(holder);
+                this.buckets[bucket] = names.size();
+            } else {
+                holders.set(this.buckets[bucket] - 1, holder);
+            }
+        }
+
+        this.names = names.toArray(new String[0]);
+        this.holders = (ExtensionHolder<T>[]) holders.toArray(new ExtensionHolder<?>[0]);
+    }
+
+    int indexOf(final String name) {
+        if (null == name) {
+            return NOT_FOUND;
+        }
+
+        int[] buckets = this.buckets;
+        String[] names = this.names;
+        for (int bucket = spread(name.hashCode()) & this.mask; ; bucket = (bucket + 1) & this.mask) {
+            int slot = buckets[bucket];
+            if (0 == slot) {
+                return NOT_FOUND;
+            }
+
+            String candidate = names[slot - 1];
+            if (candidate == name || candidate.equals(name)) {
+                return slot - 1;
+            }
+        }
+    }
+
+    ExtensionHolder<T> get(final String name) {
+        int handle = this.indexOf(name);
+
+        return NOT_FOUND == handle ? null : this.holders[handle];
+    }
+
+    ExtensionHolder<T> get(final int handle) {
+        if (handle < 0 || handle >= this.holders.length) {
+            throw new IllegalArgumentException("Invalid @SPI extension handle: " + handle);
+        }
+
+        return this.holders[handle];
+    }
+
+    int size() {
+        return this.holders.length;
+    }
+
+    // ----------------------------------------------------------------
+
+    private int find(final String name, final List<String> names) {
+        int bucket = spread(name.hashCode()) & this.mask;
+        while (0 != this.buckets[bucket] && !names.get(this.buckets[bucket] - 1).equals(name)) {
+            bucket = (bucket + 1) & this.mask;
+        }
+
+        return bucket;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(final int size) {
+        int capacity = 2;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
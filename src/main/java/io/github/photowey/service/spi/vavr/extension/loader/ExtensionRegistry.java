@@ -0,0 +1,1806 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.loader;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionEntity;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+import io.github.photowey.service.spi.vavr.extension.generator.ExtensionNameGenerator;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionDirectory;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionDiscovery;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndex;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndexEntry;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionListing;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionScanCache;
+import io.github.photowey.service.spi.vavr.extension.inject.ExtensionDependency;
+import io.github.photowey.service.spi.vavr.extension.inject.ExtensionInjectionPlan;
+import io.github.photowey.service.spi.vavr.extension.instantiator.ExtensionInstantiator;
+import io.github.photowey.service.spi.vavr.extension.instantiator.ExtensionInstantiators;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleRecord;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.InitializeLifeCycle;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.LifeCycle;
+import io.github.photowey.service.spi.vavr.extension.metrics.ExtensionMetrics;
+import io.github.photowey.service.spi.vavr.extension.metrics.NoopExtensionMetrics;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionLease;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionPool;
+import io.github.photowey.service.spi.vavr.extension.scope.ExtensionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * {@code ExtensionRegistry}
+ * <p>
+ * The extensions of one interface as seen through one {@code ClassLoader}: scanned entities, their holders
+ * and singletons, and the cached constructor instantiators.
+ * <p>
+ * The {@code ClassLoader} is only weakly referenced, so a registry never keeps the loader it was created for alive
+ * by itself. Once it holds a class defined by that very loader, whose singletons would keep the loader reachable, the
+ * registry is anchored to that class and its {@link RegistryReference} lets go of it: from then on it lives exactly as
+ * long as the loader, and both are collected together once the loader is discarded.
+ * <p>
+ * A registry never rescans. A reload builds a successor registry from the previous one: resource files whose
+ * modification time and checksum are unchanged are not parsed again, and extensions whose class is still listed
+ * keep their holder, and with it their singleton.
+ * <p>
+ * The activation conditions of an extension ({@link ExtensionCondition}) are evaluated once, when it is registered.
+ * An inactive extension stays part of the scan result, but is left out of the name table and the sorted lists, so it
+ * is never resolved nor instantiated; with descriptors from the index its class is not even loaded.
+ * <p>
+ * Extensions taking other extensions through {@code @Inject} are created by an instantiator that resolves them through
+ * their own loaders. Unless {@code -Dservice.spi.inject.verify=false}, the dependency graph of every active extension is
+ * walked once a scan that loads classes completes, reporting invalid injection points and cycles before any instance is
+ * created. A cycle is also detected on the creation path: creating an extension that is already being created by the
+ * same thread fails with the cycle, and so does blocking on a singleton whose creator waits, directly or through other
+ * threads, on the current thread.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+final class ExtensionRegistry<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtensionRegistry.class);
+
+    /**
+     * The classes of the injecting extensions being created by the current thread, outermost first.
+     */
+    private static final ThreadLocal<List<Class<?>>> CREATING = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * The thread creating each singleton being created.
+     */
+    private static final Map<ExtensionHolder<?>, Thread> CREATORS = new ConcurrentHashMap<>();
+
+    /**
+     * The singleton each thread is blocked on, waiting for its creator.
+     */
+    private static final Map<Thread, ExtensionHolder<?>> AWAITING = new ConcurrentHashMap<>();
+    /**
+     * The registries anchored to a class. A class holds its {@code ClassValue} values itself, so they are reachable for as
+     * long as its loader is, and no longer.
+     */
+    private static final ClassValue<Set<ExtensionRegistry<?>>> ANCHORS = new ClassValue<Set<ExtensionRegistry<?>>>() {
+        @Override
+        protected Set<ExtensionRegistry<?>> computeValue(final Class<?> type) {
+            return ConcurrentHashMap.newKeySet();
+        }
+    };
+
+    private final Class<T> targetClass;
+    private final WeakReference<ClassLoader> classLoaderRef;
+    private final ExtensionNameGenerator extensionNameGenerator;
+    private final ExtensionMetrics metrics;
+    private final RegistryReference<T> reference = new RegistryReference<>(this);
+    private final AtomicReference<Class<?>> anchor = new AtomicReference<>();
+
+    private volatile List<ExtensionHolder<T>> holders;
+    private volatile List<ExtensionHolder<T>> sortedHolders;
+    private volatile boolean undescribed;
+    private int scannedUrls;
+
+    private volatile ExtensionHolder<T>[] resolvedHolders;
+    private volatile List<T> cachedSingletons;
+    private final Map<String, ExtensionHolder<T>[]> groupedHolders = new ConcurrentHashMap<>();
+    private final Map<String, List<T>> cachedGroupSingletons = new ConcurrentHashMap<>();
+
+    private volatile ExtensionNameTable<T> nameTable;
+    private final Set<String> registeredClassNames = ConcurrentHashMap.newKeySet();
+    /**
+     * The scanned extensions whose activation conditions did not match; per registry, since holders are shared on reload.
+     */
+    private final Set<ExtensionHolder<T>> inactiveHolders = ConcurrentHashMap.newKeySet();
+
+    private final Map<ConstructorKey, ExtensionInstantiator<T>> cachedConstructorInstantiators = new ConcurrentHashMap<>();
+
+    /**
+     * Taken while the resource files are scanned and the holders are described. Not a monitor: both read files and load
+     * classes, and a virtual thread blocked inside {@code synchronized} would pin its carrier thread.
+     */
+    private final ReentrantLock scanLock = new ReentrantLock();
+    private final AtomicReference<CompletableFuture<Void>> scanning = new AtomicReference<>();
+
+    /**
+     * Resource files by URL, as of the scan; written once under the scan lock, read by the successor registry.
+     */
+    private final Map<String, ExtensionResource> resources = new HashMap<>();
+    /**
+     * The resource files and holders (by class name) of the previous registry on reload, dropped once the scan is complete.
+     */
+    private Map<String, ExtensionResource> previousResources;
+    private Map<String, ExtensionHolder<T>> previousHolders;
+
+    ExtensionRegistry(final Class<T> targetClass, final ClassLoader classLoader, final ExtensionNameGenerator extensionNameGenerator) {
+        this(targetClass, classLoader, extensionNameGenerator, null);
+    }
+
+    private ExtensionRegistry(
+            final Class<T> targetClass,
+            final ClassLoader classLoader,
+            final ExtensionNameGenerator extensionNameGenerator,
+            final ExtensionRegistry<T> previous) {
+        if (null != previous) {
+            this.previousResources = previous.resources;
+            this.previousHolders = new HashMap<>();
+            for (ExtensionHolder<T> holder : previous.holders) {
+                this.previousHolders.put(holder.getClassName(), holder);
+            }
+        }
+        this.targetClass = targetClass;
+        this.classLoaderRef = new WeakReference<>(classLoader);
+        this.extensionNameGenerator = extensionNameGenerator;
+        this.metrics = ExtensionMetrics.class == targetClass ? NoopExtensionMetrics.INSTANCE : MetricsHolder.METRICS;
+    }
+
+    ClassLoader getClassLoader() {
+        return this.classLoaderRef.get();
+    }
+
+    /**
+     * @return how the {@link ExtensionLoader} holds this registry, strongly until it is anchored
+     */
+    RegistryReference<T> reference() {
+        return this.reference;
+    }
+
+    /**
+     * Detaches this registry from its anchor once the loader has dropped or replaced it.
+     */
+    void unanchor() {
+        Class<?> anchor = this.anchor.get();
+        if (null != anchor) {
+            ANCHORS.get(anchor).remove(this);
+        }
+    }
+
+    // ----------------------------------------------------------------
+
+    T load() {
+        for (ExtensionHolder<T> holder : this.loadAllDescribedHolders()) {
+            if (this.resolve(holder)) {
+                return this.getExtensionInstance(holder, null, null);
+            }
+        }
+
+        return this.getExtensionInstance(null, null, null);
+    }
+
+    T load(final String name, final Class<?>[] types, final Object[] args) {
+        return this.getExtensionInstance(this.loadNameTable().get(name), types, args);
+    }
+
+    /**
+     * @return the handle of the named extension for {@link #get(int)}, or {@code -1} if there is none
+     */
+    int indexOf(final String name) {
+        return this.loadNameTable().indexOf(name);
+    }
+
+    T get(final int handle) {
+        return this.getExtensionInstance(this.loadNameTable().get(handle), null, null);
+    }
+
+    /**
+     * @return an immutable, order-sorted list of all extensions; built once and shared when every extension is a singleton
+     */
+    List<T> loads() {
+        List<T> singletons = this.cachedSingletons;
+        if (null != singletons) {
+            return singletons;
+        }
+
+        ExtensionHolder<T>[] holders = this.loadAllResolvedHolders();
+        List<T> snapshot = this.instantiate(holders);
+        if (this.allSingleton(holders)) {
+            this.cachedSingletons = snapshot;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * @return like {@link #loads()}, the extensions of the group only; the members of a group are selected once
+     */
+    List<T> loads(final String group) {
+        List<T> singletons = this.cachedGroupSingletons.get(group);
+        if (null != singletons) {
+            return singletons;
+        }
+
+        ExtensionHolder<T>[] holders = this.groupedHolders.get(group);
+        if (null == holders) {
+            holders = this.loadGroupHolders(group);
+            ExtensionHolder<T>[] existing = this.groupedHolders.putIfAbsent(group, holders);
+            holders = null != existing ? existing : holders;
+        }
+
+        List<T> snapshot = this.instantiate(holders);
+        if (this.allSingleton(holders)) {
+            this.cachedGroupSingletons.putIfAbsent(group, snapshot);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * @return a lease of an idle or new instance of the {@link Scoped#POOLED} extension, {@code null} if there is none by that name
+     */
+    ExtensionLease<T> acquire(final String name) {
+        ExtensionHolder<T> holder = this.loadNameTable().get(name);
+        if (null == holder) {
+            return null;
+        }
+        if (!holder.isPooled()) {
+            throw new IllegalArgumentException(String.format("Extension %s of %s is not POOLED", name, this.targetClass.getName()));
+        }
+
+        ExtensionPool<T> pool = holder.getPool();
+        if (null == pool) {
+            pool = this.createPool(holder);
+        }
+
+        return null == pool ? null : pool.lease();
+    }
+
+    /**
+     * Like {@link #load(String, Class[], Object[])} ({@link #load()} for a {@code null} name), without blocking the caller:
+     * scanning, class loading and {@code init()} run on the executor. Concurrent calls for a singleton that is still
+     * being created share one future; a singleton already created completes immediately.
+     */
+    CompletableFuture<T> loadAsync(final String name, final Executor executor) {
+        ExtensionNameTable<T> table = this.nameTable;
+        if (null == table) {
+            return this.scanAsync(executor).thenCompose(ignored -> this.loadAsync(name, executor));
+        }
+
+        ExtensionHolder<T> holder = null == name ? this.defaultHolder() : table.get(name);
+        if (null == holder || null != holder.getInstance()) {
+            return CompletableFuture.completedFuture(this.loadOrDefault(name));
+        }
+        if (holder.isThreadScoped() || holder.isCustomScoped()) {
+            // Bound to the context of the caller, not of an executor thread.
+            return CompletableFuture.completedFuture(this.loadOrDefault(name));
+        }
+        if (!holder.isSingleton()) {
+            return CompletableFuture.supplyAsync(() -> this.loadOrDefault(name), executor);
+        }
+
+        AtomicReference<CompletableFuture<T>> creation = holder.getCreation();
+        CompletableFuture<T> pending = creation.get();
+        if (null != pending) {
+            return pending;
+        }
+
+        CompletableFuture<T> created = new CompletableFuture<>();
+        if (!creation.compareAndSet(null, created)) {
+            return creation.get();
+        }
+
+        return this.completeAsync(created, () -> this.loadOrDefault(name), executor, () -> creation.compareAndSet(created, null));
+    }
+
+    /**
+     * Like {@link #loads()}, with scanning, class loading and {@code init()} on the executor.
+     */
+    CompletableFuture<List<T>> loadsAsync(final Executor executor) {
+        List<T> singletons = this.cachedSingletons;
+        if (null != singletons) {
+            return CompletableFuture.completedFuture(singletons);
+        }
+
+        return CompletableFuture.supplyAsync(this::loads, executor);
+    }
+
+    /**
+     * Scans again into a new registry, reusing unchanged resource files and the holders of extensions still listed.
+     * This registry is left untouched, so callers holding it keep working.
+     */
+    ExtensionRegistry<T> reload() {
+        ClassLoader classLoader = this.requireClassLoader();
+        this.loadAllExtensionHolders();
+        ExtensionIndex.evict(classLoader);
+        ExtensionDirectory.evict(classLoader);
+
+        ExtensionRegistry<T> next = new ExtensionRegistry<>(this.targetClass, classLoader, this.extensionNameGenerator, this);
+        next.loadAllExtensionHolders();
+
+        return next;
+    }
+
+    /**
+     * @return {@code true} if the other registry holds exactly the same extensions
+     */
+    boolean sameExtensions(final ExtensionRegistry<T> other) {
+        List<ExtensionHolder<T>> holders = this.loadAllActiveHolders();
+        List<ExtensionHolder<T>> others = other.loadAllActiveHolders();
+        if (holders.size() != others.size()) {
+            return false;
+        }
+
+        Set<ExtensionHolder<T>> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        identities.addAll(holders);
+
+        return identities.containsAll(others);
+    }
+
+    /**
+     * Stops the {@link LifeCycle} singletons of this registry that are not part of its successor.
+     */
+    void stopRemoved(final ExtensionRegistry<T> next) {
+        Set<ExtensionHolder<T>> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(next.loadAllActiveHolders());
+        for (ExtensionHolder<T> holder : this.loadAllStoppableHolders()) {
+            if (!retained.contains(holder)) {
+                try {
+                    this.stopInstance(holder);
+                } catch (RuntimeException e) {
+                    log.warn("Stop removed @SPI extension:[{}] failed", holder.getClassName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates every singleton and compiles the registry into its read-only form.
+     */
+    FrozenExtensionRegistry<T> freeze() {
+        List<T> loaded = this.loads();
+        ExtensionNameTable<T> table = this.loadNameTable();
+
+        Object[] singletons = new Object[table.size()];
+        for (int handle = 0; handle < singletons.length; handle++) {
+            ExtensionHolder<T> holder = table.get(handle);
+            if (holder.isSingleton() && this.resolve(holder)) {
+                singletons[handle] = this.getExtensionInstance(holder, null, null);
+            }
+        }
+
+        ExtensionHolder<T>[] resolved = this.loadAllResolvedHolders();
+        T defaultInstance = resolved.length > 0 && resolved[0].isSingleton() ? resolved[0].getInstance() : null;
+
+        return new FrozenExtensionRegistry<>(this.requireClassLoader(), this, defaultInstance, table, singletons,
+                loaded == this.cachedSingletons ? loaded : null);
+    }
+
+    /**
+     * Schedules the creation (and {@code start()}/{@code init()}) of every singleton on the executor.
+     * Extensions of the same order run in parallel; each order starts once all lower orders have finished.
+     */
+    List<CompletableFuture<ExtensionLifeCycleRecord>> preload(final Executor executor) {
+        ExtensionHolder<T>[] holders = this.loadAllResolvedHolders();
+        List<CompletableFuture<ExtensionLifeCycleRecord>> futures = new ArrayList<>(holders.length);
+
+        CompletableFuture<?> barrier = CompletableFuture.completedFuture(null);
+        List<CompletableFuture<ExtensionLifeCycleRecord>> level = new ArrayList<>();
+        Integer levelOrder = null;
+        for (ExtensionHolder<T> holder : holders) {
+            if (!holder.isSingleton()) {
+                continue;
+            }
+
+            int order = holder.getEntity().getOrder();
+            if (null != levelOrder && levelOrder != order) {
+                barrier = CompletableFuture.allOf(level.toArray(new CompletableFuture<?>[0]));
+                level = new ArrayList<>();
+            }
+            levelOrder = order;
+
+            CompletableFuture<ExtensionLifeCycleRecord> future = barrier.thenApplyAsync(ignored -> this.preload(holder), executor);
+            level.add(future);
+            futures.add(future);
+        }
+
+        return futures;
+    }
+
+    /**
+     * Stops every {@link LifeCycle} singleton, closes every pool, evicting its idle instances, and detaches every
+     * {@code THREAD} scope instance from its thread, stopping it, highest {@code @SPI(order)} first.
+     */
+    void stop() {
+        for (ExtensionHolder<T> holder : this.loadAllStoppableHolders()) {
+            this.stopInstance(holder);
+        }
+    }
+
+    /**
+     * Stops every {@link LifeCycle} singleton, highest {@code @SPI(order)} first, each on the executor.
+     * An extension is waited for until its timeout or the deadline ({@link System#nanoTime()} based), whichever comes first;
+     * once the deadline has passed, the remaining extensions are not stopped and are recorded as timed out.
+     */
+    List<ExtensionLifeCycleRecord> stop(final Executor executor, final long timeoutNanos, final long deadlineNanos) {
+        List<ExtensionHolder<T>> holders = this.loadAllStoppableHolders();
+        List<ExtensionLifeCycleRecord> records = new ArrayList<>(holders.size());
+        for (ExtensionHolder<T> holder : holders) {
+            records.add(this.stop(holder, executor, timeoutNanos, deadlineNanos));
+        }
+
+        return records;
+    }
+
+    // ----------------------------------------------------------------
+
+    private ExtensionLifeCycleRecord preload(final ExtensionHolder<T> holder) {
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            this.getExtensionInstance(holder, null, null);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        long duration = System.nanoTime() - start;
+
+        ExtensionEntity entity = holder.getEntity();
+        return new ExtensionLifeCycleRecord(this.targetClass, entity.getName(), entity.getClassName(), entity.getOrder(), duration, failure);
+    }
+
+    private ExtensionLifeCycleRecord stop(final ExtensionHolder<T> holder, final Executor executor, final long timeoutNanos, final long deadlineNanos) {
+        ExtensionEntity entity = holder.getEntity();
+        long start = System.nanoTime();
+        long remaining = Math.min(timeoutNanos, deadlineNanos - start);
+        if (remaining <= 0) {
+            log.warn("Stop @SPI extension:[{}] skipped, shutdown deadline exceeded", entity.getClassName());
+            return new ExtensionLifeCycleRecord(this.targetClass, entity.getName(), entity.getClassName(), entity.getOrder(), 0,
+                    new TimeoutException("Shutdown deadline exceeded"), true);
+        }
+
+        Throwable failure = null;
+        boolean timedOut = false;
+        // A FutureTask rather than a CompletableFuture: only the former interrupts the stop() it cancels.
+        FutureTask<Void> task = new FutureTask<>(() -> this.stopInstance(holder), null);
+        try {
+            executor.execute(task);
+            task.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Stop @SPI extension:[{}] timed out, interrupting it", entity.getClassName());
+            task.cancel(true);
+            failure = e;
+            timedOut = true;
+        } catch (ExecutionException e) {
+            log.warn("Stop @SPI extension:[{}] failed", entity.getClassName(), e.getCause());
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            failure = e;
+        }
+        long duration = System.nanoTime() - start;
+
+        return new ExtensionLifeCycleRecord(this.targetClass, entity.getName(), entity.getClassName(), entity.getOrder(), duration, failure, timedOut);
+    }
+
+    private void stopInstance(final ExtensionHolder<T> holder) {
+        ExtensionPool<T> pool = holder.getPool();
+        if (null != pool) {
+            pool.close();
+            return;
+        }
+        if (holder.isThreadScoped()) {
+            for (T instance : holder.clearThreadInstances()) {
+                this.evict(holder, instance);
+            }
+            return;
+        }
+
+        this.stopInstance(holder, (LifeCycle) holder.getInstance());
+    }
+
+    private void stopInstance(final ExtensionHolder<T> holder, final LifeCycle target) {
+        if (!this.metrics.isEnabled()) {
+            target.stop();
+            return;
+        }
+
+        long start = System.nanoTime();
+        target.stop();
+        this.metrics.stopped(this.targetClass, holder.getEntity().getName(), System.nanoTime() - start);
+    }
+
+    private ExtensionPool<T> createPool(final ExtensionHolder<T> holder) {
+        if (!this.resolve(holder)) {
+            log.error("Not found target service implements for class:[{}]", this.targetClass.getName());
+            return null;
+        }
+
+        holder.getLock().lock();
+        try {
+            ExtensionPool<T> pool = holder.getPool();
+            if (null == pool) {
+                SPI spi = holder.getEntity().getTargetClass().getAnnotation(SPI.class);
+                pool = new ExtensionPool<>(spi.poolSize(), () -> this.newInstance(holder, null, null), instance -> this.evict(holder, instance));
+                holder.setPool(pool);
+            }
+
+            return pool;
+        } finally {
+            holder.getLock().unlock();
+        }
+    }
+
+    /**
+     * Stops an instance the pool or the thread no longer keeps; a failure is logged, so that every instance is evicted.
+     */
+    private void evict(final ExtensionHolder<T> holder, final T instance) {
+        if (!(instance instanceof LifeCycle)) {
+            return;
+        }
+
+        try {
+            this.stopInstance(holder, (LifeCycle) instance);
+        } catch (RuntimeException e) {
+            log.warn("Stop evicted @SPI extension:[{}] failed", holder.getClassName(), e);
+        }
+    }
+
+    /**
+     * Scans on the executor; concurrent callers share one scan, which is retried by the next caller if it failed.
+     */
+    private CompletableFuture<Void> scanAsync(final Executor executor) {
+        CompletableFuture<Void> pending = this.scanning.get();
+        if (null != pending) {
+            return pending;
+        }
+
+        CompletableFuture<Void> scan = new CompletableFuture<>();
+        if (!this.scanning.compareAndSet(null, scan)) {
+            return this.scanning.get();
+        }
+
+        return this.completeAsync(scan, () -> {
+            this.loadNameTable();
+            return null;
+        }, executor, () -> {
+            if (null == this.nameTable) {
+                this.scanning.compareAndSet(scan, null);
+            }
+        });
+    }
+
+    /**
+     * Completes the future with the result of the task run on the executor. {@code done} runs before the future
+     * completes, so that no caller sees a completed future still registered as in flight.
+     */
+    private <R> CompletableFuture<R> completeAsync(final CompletableFuture<R> future, final Supplier<R> task,
+                                                   final Executor executor, final Runnable done) {
+        try {
+            executor.execute(() -> {
+                R result;
+                try {
+                    result = task.get();
+                } catch (Throwable e) {
+                    done.run();
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                done.run();
+                future.complete(result);
+            });
+        } catch (RuntimeException e) {
+            done.run();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private T loadOrDefault(final String name) {
+        return null == name ? this.load() : this.load(name, null, null);
+    }
+
+    /**
+     * @return the first extension by order that has not failed to load, the candidate of {@link #load()}
+     */
+    private ExtensionHolder<T> defaultHolder() {
+        for (ExtensionHolder<T> holder : this.loadAllDescribedHolders()) {
+            if (!holder.isFailed()) {
+                return holder;
+            }
+        }
+
+        return null;
+    }
+
+    private T getExtensionInstance(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) {
+        if (holder == null) {
+            log.error("Not found target service implements for class:[{}]", this.targetClass.getName());
+            return null;
+        }
+
+        T instance = holder.getInstance();
+        if (instance != null) {
+            if (this.metrics.isEnabled()) {
+                this.metrics.cacheHit(this.targetClass, holder.getEntity().getName());
+            }
+
+            return instance;
+        }
+
+        if (!this.resolve(holder)) {
+            log.error("Not found target service implements for class:[{}]", this.targetClass.getName());
+            return null;
+        }
+
+        if (holder.isSingleton()) {
+            if (this.metrics.isEnabled()) {
+                this.metrics.cacheMiss(this.targetClass, holder.getEntity().getName());
+            }
+
+            return this.createSingleton(holder, types, args);
+        }
+        if (holder.isThreadScoped()) {
+            return this.getThreadInstance(holder, types, args);
+        }
+        if (holder.isCustomScoped()) {
+            return this.getScopedInstance(holder, types, args);
+        }
+        if (holder.isPooled()) {
+            // An instance outside the pool would never be stopped.
+            throw new IllegalArgumentException(String.format("Extension %s of %s is POOLED, acquire a lease of it instead",
+                    holder.getEntity().getName(), this.targetClass.getName()));
+        }
+
+        return this.newInstance(holder, types, args);
+    }
+
+    private T getThreadInstance(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) {
+        T instance = holder.getThreadInstance();
+        if (null == instance) {
+            instance = this.newInstance(holder, types, args);
+            holder.setThreadInstance(instance);
+        }
+
+        return instance;
+    }
+
+    private T getScopedInstance(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) {
+        ExtensionScope scope = holder.getCustomScope();
+        if (null == scope) {
+            scope = this.lookupScope(holder);
+        }
+
+        return scope.get(holder.getScopeId(), () -> this.newInstance(holder, types, args));
+    }
+
+    private ExtensionScope lookupScope(final ExtensionHolder<T> holder) {
+        ExtensionEntity entity = holder.getEntity();
+        String scopeName = entity.getTargetClass().getAnnotation(SPI.class).customScope();
+        ExtensionScope scope = scopeName.isEmpty() ? null
+                : ExtensionLoader.getExtensionLoader(ExtensionScope.class).load(scopeName, this.requireClassLoader());
+        if (null == scope) {
+            throw new IllegalStateException(String.format("Extension %s of %s has no ExtensionScope named: [%s]",
+                    entity.getName(), this.targetClass.getName(), scopeName));
+        }
+
+        holder.setCustomScope(scope, this.targetClass.getName() + "#" + entity.getName());
+
+        return scope;
+    }
+
+    private T createSingleton(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) {
+        lockSingleton(holder);
+        Thread creator = CREATORS.put(holder, Thread.currentThread());
+        try {
+            T instance = holder.getInstance();
+            if (instance == null) {
+                instance = this.newInstance(holder, types, args);
+                holder.setInstance(instance);
+            }
+
+            return instance;
+        } finally {
+            if (null == creator) {
+                CREATORS.remove(holder);
+            }
+            holder.getLock().unlock();
+        }
+    }
+
+    /**
+     * Locks the singleton, publishing the wait before blocking so that the last thread closing a wait-for cycle sees it.
+     *
+     * @throws IllegalStateException if the creator of the singleton waits, directly or not, on the current thread
+     */
+    private static void lockSingleton(final ExtensionHolder<?> holder) {
+        ReentrantLock lock = holder.getLock();
+        if (lock.tryLock()) {
+            return;
+        }
+
+        Thread current = Thread.currentThread();
+        AWAITING.put(current, holder);
+        try {
+            List<Class<?>> cycle = findWaitCycle(holder, current);
+            if (null != cycle) {
+                throw cycleException(cycle);
+            }
+
+            lock.lock();
+        } finally {
+            AWAITING.remove(current);
+        }
+    }
+
+    /**
+     * Follows the creators of the singletons waited on, starting from the holder.
+     *
+     * @return the classes of the singletons along the chain, the one created by the current thread first and repeated at
+     * the end; {@code null} if the chain does not lead back to the current thread
+     */
+    private static List<Class<?>> findWaitCycle(final ExtensionHolder<?> holder, final Thread current) {
+        List<Class<?>> chain = new ArrayList<>();
+        Set<Thread> visited = new HashSet<>();
+        ExtensionHolder<?> waited = holder;
+        while (null != waited) {
+            Thread creator = CREATORS.get(waited);
+            if (null == creator || !visited.add(creator)) {
+                return null;
+            }
+
+            chain.add(waited.getEntity().getTargetClass());
+            if (creator == current) {
+                List<Class<?>> cycle = new ArrayList<>(chain.size() + 1);
+                cycle.add(chain.get(chain.size() - 1));
+                cycle.addAll(chain);
+
+                return cycle;
+            }
+
+            waited = AWAITING.get(creator);
+        }
+
+        return null;
+    }
+
+    private T newInstance(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) {
+        try {
+            return this.initInstance(holder, types, args);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Extension new instance(entity: " + holder.getEntity() + ", class: " + this.targetClass + ")  could not be instantiated", e);
+        }
+    }
+
+    /**
+     * Loads the class of a lazily registered extension, reading its {@code @SPI} metadata if the descriptor had none.
+     */
+    private boolean resolve(final ExtensionHolder<T> holder) {
+        if (holder.isResolved()) {
+            return true;
+        }
+
+        holder.getLock().lock();
+        try {
+            if (holder.isResolved()) {
+                return true;
+            }
+            if (holder.isFailed()) {
+                return false;
+            }
+
+            ExtensionEntity entity = holder.getEntity();
+            try {
+                Class<?> implClass = this.forName(entity.getClassName(), this.requireClassLoader(), false);
+                holder.setEntity(holder.isDescribed() ? this.copyOf(entity, implClass) : this.describe(implClass, entity.getName(), entity.getSource()));
+
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("Load @SPI extension:[{}] class failed:[{}]", entity.getClassName(), e.getMessage());
+                holder.markFailed();
+
+                return false;
+            }
+        } finally {
+            holder.getLock().unlock();
+        }
+    }
+
+    private List<ExtensionHolder<T>> loadAllExtensionHolders() {
+        List<ExtensionHolder<T>> holders = this.holders;
+        if (null == holders) {
+            boolean scanned = false;
+            this.scanLock.lock();
+            try {
+                holders = this.holders;
+                if (null == holders) {
+                    long start = this.metrics.isEnabled() ? System.nanoTime() : 0L;
+                    holders = this.findAllExtensionHolders(this.requireClassLoader());
+                    this.previousResources = null;
+                    this.previousHolders = null;
+                    if (this.metrics.isEnabled()) {
+                        this.metrics.scanned(this.targetClass, this.scannedUrls, System.nanoTime() - start);
+                    }
+                    if (!this.undescribed) {
+                        this.publishDescribed(holders);
+                    }
+                    this.holders = holders;
+                    scanned = true;
+                }
+            } finally {
+                this.scanLock.unlock();
+            }
+
+            // Outside the scan lock: the walk scans the registries of the dependencies, which may depend on this one.
+            if (scanned && ExtensionProperties.injectVerify() && !ExtensionProperties.lazyEnabled()) {
+                this.verifyDependencies();
+            }
+        }
+
+        return holders;
+    }
+
+    /**
+     * Walks the dependency graph from every active extension, logging invalid injection points and cycles.
+     */
+    private void verifyDependencies() {
+        for (ExtensionHolder<T> holder : this.loadAllDescribedHolders()) {
+            if (!holder.isResolved()) {
+                continue;
+            }
+
+            try {
+                this.checkDependencies(holder.getEntity().getTargetClass());
+            } catch (IllegalStateException e) {
+                log.error("Verify @SPI extension:[{}] dependencies failed:[{}]", holder.getClassName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the class has an invalid injection point, or if creating it would run into a cycle
+     */
+    private void checkDependencies(final Class<?> implClass) {
+        if (ExtensionInjectionPlan.of(implClass).isEmpty()) {
+            return;
+        }
+
+        List<Class<?>> cycle = this.findCycle(implClass, this.requireClassLoader(), new ArrayList<>(), new HashSet<>());
+        if (null != cycle) {
+            throw cycleException(cycle);
+        }
+    }
+
+    private static IllegalStateException cycleException(final List<Class<?>> cycle) {
+        StringBuilder path = new StringBuilder();
+        for (Class<?> node : cycle) {
+            path.append(path.length() > 0 ? " -> " : "").append(node.getName());
+        }
+
+        return new IllegalStateException("Dependency cycle of @SPI extensions: " + path);
+    }
+
+    /**
+     * Depth-first, resolving each dependency to the class that would be injected, without creating any instance.
+     *
+     * @return the classes of the first cycle found, its first class repeated at the end; {@code null} if there is none
+     */
+    private List<Class<?>> findCycle(final Class<?> implClass, final ClassLoader loader, final List<Class<?>> path, final Set<Class<?>> visited) {
+        int index = path.indexOf(implClass);
+        if (index >= 0) {
+            List<Class<?>> cycle = new ArrayList<>(path.subList(index, path.size()));
+            cycle.add(implClass);
+
+            return cycle;
+        }
+        if (!visited.add(implClass)) {
+            return null;
+        }
+
+        ExtensionInjectionPlan plan = ExtensionInjectionPlan.of(implClass);
+        path.add(implClass);
+        for (List<ExtensionDependency> dependencies : Arrays.asList(plan.getConstructorDependencies(), plan.getSetterDependencies())) {
+            for (ExtensionDependency dependency : dependencies) {
+                Class<?> dependencyClass = this.registryOf(dependency.getType(), loader).dependencyClass(dependency.getName());
+                List<Class<?>> cycle = null == dependencyClass ? null : this.findCycle(dependencyClass, loader, path, visited);
+                if (null != cycle) {
+                    return cycle;
+                }
+            }
+        }
+        path.remove(path.size() - 1);
+
+        return null;
+    }
+
+    /**
+     * @return this registry for its own interface, so that a registry being built on reload resolves against itself
+     */
+    private ExtensionRegistry<?> registryOf(final Class<?> type, final ClassLoader loader) {
+        return type == this.targetClass ? this : ExtensionLoader.getExtensionLoader(type).currentRegistry(loader);
+    }
+
+    /**
+     * @param name the extension name, empty for the default extension
+     * @return the class of the extension that would be injected, {@code null} if there is none
+     */
+    Class<?> dependencyClass(final String name) {
+        ExtensionHolder<T> holder = name.isEmpty() ? this.defaultHolder() : this.loadNameTable().get(name);
+
+        return null != holder && this.resolve(holder) ? holder.getEntity().getTargetClass() : null;
+    }
+
+    /**
+     * @return all scanned extensions, except those known to be inactive
+     */
+    private List<ExtensionHolder<T>> loadAllActiveHolders() {
+        List<ExtensionHolder<T>> holders = this.loadAllExtensionHolders();
+        if (this.inactiveHolders.isEmpty()) {
+            return holders;
+        }
+
+        List<ExtensionHolder<T>> active = new ArrayList<>(holders.size());
+        for (ExtensionHolder<T> holder : holders) {
+            if (!this.inactiveHolders.contains(holder)) {
+                active.add(holder);
+            }
+        }
+
+        return active;
+    }
+
+    /**
+     * @return all active extensions with known name, order and scope, sorted by order
+     */
+    private List<ExtensionHolder<T>> loadAllDescribedHolders() {
+        List<ExtensionHolder<T>> sorted = this.sortedHolders;
+        if (null != sorted) {
+            return sorted;
+        }
+
+        List<ExtensionHolder<T>> holders = this.loadAllExtensionHolders();
+        this.scanLock.lock();
+        try {
+            if (null == this.sortedHolders) {
+                for (ExtensionHolder<T> holder : holders) {
+                    if (!holder.isDescribed() && this.resolve(holder) && !this.isActive(holder.getEntity())) {
+                        this.inactiveHolders.add(holder);
+                    }
+                }
+
+                this.publishDescribed(holders);
+                this.undescribed = false;
+            }
+
+            return this.sortedHolders;
+        } finally {
+            this.scanLock.unlock();
+        }
+    }
+
+    ExtensionNameTable<T> nameTable() {
+        return this.loadNameTable();
+    }
+
+    private ExtensionNameTable<T> loadNameTable() {
+        ExtensionNameTable<T> table = this.nameTable;
+        if (null != table) {
+            return table;
+        }
+
+        this.loadAllDescribedHolders();
+
+        return this.nameTable;
+    }
+
+    /**
+     * Publishes the name table before the sorted holders, so that whoever sees the latter also sees the former.
+     * Both only hold active extensions.
+     */
+    private void publishDescribed(final List<ExtensionHolder<T>> holders) {
+        List<ExtensionHolder<T>> described = new ArrayList<>(holders.size());
+        for (ExtensionHolder<T> holder : holders) {
+            if (holder.isDescribed() && !this.inactiveHolders.contains(holder)) {
+                described.add(holder);
+            }
+        }
+
+        this.nameTable = new ExtensionNameTable<>(described);
+        this.sortedHolders = this.sort(described);
+    }
+
+    /**
+     * @return all loadable extensions, sorted by order
+     */
+    @SuppressWarnings("unchecked")
+    private ExtensionHolder<T>[] loadAllResolvedHolders() {
+        ExtensionHolder<T>[] resolved = this.resolvedHolders;
+        if (null != resolved) {
+            return resolved;
+        }
+
+        List<ExtensionHolder<T>> sorted = this.loadAllDescribedHolders();
+        List<ExtensionHolder<T>> loadable = new ArrayList<>(sorted.size());
+        for (ExtensionHolder<T> holder : sorted) {
+            if (this.resolve(holder)) {
+                loadable.add(holder);
+            }
+        }
+
+        resolved = (ExtensionHolder<T>[]) loadable.toArray(new ExtensionHolder<?>[0]);
+        this.resolvedHolders = resolved;
+
+        return resolved;
+    }
+
+    /**
+     * @return the loadable extensions of the group, sorted by order; the classes of other extensions are not loaded
+     */
+    @SuppressWarnings("unchecked")
+    private ExtensionHolder<T>[] loadGroupHolders(final String group) {
+        List<ExtensionHolder<T>> members = new ArrayList<>();
+        for (ExtensionHolder<T> holder : this.loadAllDescribedHolders()) {
+            ExtensionCondition condition = holder.getEntity().getCondition();
+            if (null != condition && condition.inGroup(group) && this.resolve(holder)) {
+                members.add(holder);
+            }
+        }
+
+        return (ExtensionHolder<T>[]) members.toArray(new ExtensionHolder<?>[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> instantiate(final ExtensionHolder<T>[] holders) {
+        if (0 == holders.length) {
+            return Collections.emptyList();
+        }
+
+        T[] instances = (T[]) new Object[holders.length];
+        for (int i = 0; i < holders.length; i++) {
+            instances[i] = this.getExtensionInstance(holders[i], null, null);
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(instances));
+    }
+
+    private boolean allSingleton(final ExtensionHolder<T>[] holders) {
+        for (ExtensionHolder<T> holder : holders) {
+            if (!holder.isSingleton()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the holders of all created {@link LifeCycle} singletons, pools and {@code THREAD} scope instances, in reverse order
+     */
+    private List<ExtensionHolder<T>> loadAllStoppableHolders() {
+        List<ExtensionHolder<T>> holders = this.holders;
+        if (null == holders) {
+            return Collections.emptyList();
+        }
+
+        List<ExtensionHolder<T>> stoppable = new ArrayList<>();
+        for (ExtensionHolder<T> holder : holders) {
+            if (holder.getInstance() instanceof LifeCycle || null != holder.getPool() || holder.hasThreadInstances()) {
+                stoppable.add(holder);
+            }
+        }
+        stoppable.sort(Comparator.comparing(holder -> holder.getEntity().getOrder()));
+        Collections.reverse(stoppable);
+
+        return stoppable;
+    }
+
+    private List<ExtensionHolder<T>> sort(final List<ExtensionHolder<T>> holders) {
+        List<ExtensionHolder<T>> sorted = new ArrayList<>(holders);
+        sorted.sort(Comparator.comparing(holder -> holder.getEntity().getOrder()));
+
+        return Collections.unmodifiableList(sorted);
+    }
+
+    private ClassLoader requireClassLoader() {
+        ClassLoader classLoader = this.classLoaderRef.get();
+        if (null == classLoader) {
+            throw new IllegalStateException("The ClassLoader of @SPI extension registry for " + this.targetClass + " has been collected");
+        }
+
+        return classLoader;
+    }
+
+    // ----------------------------------------------------------------
+
+    private List<ExtensionHolder<T>> findAllExtensionHolders(final ClassLoader loader) {
+        List<ExtensionHolder<T>> holders = new ArrayList<>();
+        List<ExtensionIndexEntry> indexEntries = this.findIndexEntries(loader);
+        if (!indexEntries.isEmpty()) {
+            this.loadIndex(indexEntries, loader, holders);
+            if (ExtensionProperties.indexFallback()) {
+                this.loadUncoveredListings(loader, holders);
+            }
+
+            return Collections.unmodifiableList(holders);
+        }
+
+        List<ExtensionIndexEntry> cachedEntries = null == this.previousHolders
+                ? ExtensionScanCache.lookup(this.targetClass.getName(), loader)
+                : null;
+        if (null != cachedEntries) {
+            this.loadIndex(cachedEntries, loader, holders);
+            return Collections.unmodifiableList(holders);
+        }
+
+        this.loadDirectory(ExtensionConstants.EXTENSION_DIRECTORY + this.targetClass.getName(), loader, holders);
+        if (!this.undescribed) {
+            this.storeScanCache(holders, loader);
+        }
+
+        return Collections.unmodifiableList(holders);
+    }
+
+    private void storeScanCache(final List<ExtensionHolder<T>> holders, final ClassLoader loader) {
+        if (null == ExtensionProperties.cacheDirectory()) {
+            return;
+        }
+
+        List<ExtensionIndexEntry> entries = new ArrayList<>(holders.size());
+        for (ExtensionHolder<T> holder : holders) {
+            ExtensionEntity entity = holder.getEntity();
+            entries.add(new ExtensionIndexEntry(this.targetClass.getName(), entity.getName(), entity.getOrder(), entity.getScope(), entity.getClassName(), entity.getCondition()));
+        }
+
+        ExtensionScanCache.store(this.targetClass.getName(), loader, entries);
+    }
+
+    private List<ExtensionIndexEntry> findIndexEntries(final ClassLoader loader) {
+        if (!ExtensionProperties.indexEnabled()) {
+            return Collections.emptyList();
+        }
+
+        return ExtensionIndex.lookup(this.targetClass.getName(), loader);
+    }
+
+    private void loadIndex(final List<ExtensionIndexEntry> indexEntries, final ClassLoader loader, final List<ExtensionHolder<T>> holders) {
+        for (ExtensionIndexEntry entry : indexEntries) {
+            try {
+                this.loadIndexClass(holders, entry, loader);
+            } catch (ClassNotFoundException e) {
+                log.warn("Load @SPI extension:[{}] class failed:[{}]", entry.getClassName(), e.getMessage());
+            }
+        }
+    }
+
+    private void loadIndexClass(final List<ExtensionHolder<T>> holders, final ExtensionIndexEntry entry, final ClassLoader loader) throws ClassNotFoundException {
+        if (this.notContainsClazz(entry.getClassName()) && !this.reuseHolder(holders, entry.getClassName())) {
+            ExtensionEntity entity = ExtensionEntity.builder()
+                    .name(entry.getName())
+                    .order(entry.getOrder())
+                    .scope(entry.getScope())
+                    .className(entry.getClassName())
+                    .condition(entry.getCondition())
+                    .build();
+
+            boolean active = this.isActive(entity);
+            if (active && !ExtensionProperties.lazyEnabled()) {
+                entity.setTargetClass(this.forName(entry.getClassName(), loader, true));
+            }
+
+            this.registerEntity(holders, entity, active);
+        }
+    }
+
+    /**
+     * Scans the listing files of the interface that no index covers, those of jars built without the processor,
+     * after the indexed extensions.
+     */
+    private void loadUncoveredListings(final ClassLoader classLoader, final List<ExtensionHolder<T>> holders) {
+        String dir = ExtensionConstants.EXTENSION_DIRECTORY + this.targetClass.getName();
+        Set<String> covered = ExtensionIndex.coveredListings(this.targetClass.getName(), classLoader);
+        try {
+            List<URL> uncovered = new ArrayList<>();
+            for (URL url : Collections.list(this.findResources(dir, classLoader))) {
+                if (!covered.contains(url.toString())) {
+                    log.debug("Scan @SPI extension listing:[{}] not covered by the extension index", url);
+                    uncovered.add(url);
+                }
+            }
+
+            this.loadResources(uncovered, classLoader, holders);
+        } catch (IOException e) {
+            log.error("Load @SPI extension class error, dir:[{}]", dir, e);
+        }
+    }
+
+    private void loadDirectory(final String dir, final ClassLoader classLoader, final List<ExtensionHolder<T>> holders) {
+        try {
+            this.loadResources(Collections.list(this.findResources(dir, classLoader)), classLoader, holders);
+        } catch (IOException e) {
+            log.error("Load @SPI extension class error, dir:[{}]", dir, e);
+        }
+    }
+
+    /**
+     * Reads the resource files, concurrently with parallel discovery, then registers their extensions serially,
+     * in resource order, exactly as a serial scan would.
+     */
+    private void loadResources(final List<URL> resources, final ClassLoader classLoader, final List<ExtensionHolder<T>> holders) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        this.scannedUrls += resources.size();
+        boolean preload = ExtensionDiscovery.isParallel() && !ExtensionProperties.lazyEnabled();
+        List<DiscoveredResource> discovered = ExtensionDiscovery.map(resources, url -> this.discover(url, classLoader, preload));
+        for (int i = 0; i < resources.size(); i++) {
+            this.loadResources(holders, resources.get(i), discovered.get(i), classLoader);
+        }
+    }
+
+    /**
+     * The part of a scan that may run on a discovery thread: reads the resource file and, when preloading, loads the
+     * classes listed in it uninitialized. Besides reading the previous scan, it only touches state that is safe to
+     * update concurrently: {@link #forName} records the class loader through {@link #anchor} and reports the load to
+     * the metrics.
+     */
+    private DiscoveredResource discover(final URL url, final ClassLoader classLoader, final boolean preload) {
+        ExtensionResource resource = this.readResource(url);
+        if (!preload) {
+            return new DiscoveredResource(resource, null);
+        }
+
+        Object[] classes = new Object[resource.classNames.size()];
+        for (int i = 0; i < classes.length; i++) {
+            String className = resource.classNames.get(i);
+            if (null != this.previousHolders && this.previousHolders.containsKey(className)) {
+                continue;
+            }
+
+            try {
+                classes[i] = this.forName(className, classLoader, false);
+            } catch (ClassNotFoundException | RuntimeException | LinkageError e) {
+                classes[i] = e;
+            }
+        }
+
+        return new DiscoveredResource(resource, classes);
+    }
+
+    private Enumeration<URL> findResources(final String dir, final ClassLoader classLoader) throws IOException {
+        if (ExtensionProperties.bulkEnabled()) {
+            List<URL> urls = ExtensionDirectory.lookup(this.targetClass.getName(), classLoader);
+            if (!urls.isEmpty()) {
+                return Collections.enumeration(urls);
+            }
+        }
+
+        return classLoader.getResources(dir);
+    }
+
+    private void loadResources(final List<ExtensionHolder<T>> holders, final URL url, final DiscoveredResource discovered, final ClassLoader classLoader) {
+        ExtensionResource resource = discovered.resource;
+        this.resources.put(url.toString(), resource);
+        for (int i = 0; i < resource.classNames.size(); i++) {
+            String className = resource.classNames.get(i);
+            Object preloaded = null == discovered.classes ? null : discovered.classes[i];
+            try {
+                this.loadClass(holders, resource.names.get(i), className, preloaded, url, classLoader);
+            } catch (ClassNotFoundException e) {
+                log.warn("Load @SPI extension:[{}] class failed:[{}]", className, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads a resource file, or, on reload, reuses the previous result when its modification time or content is unchanged.
+     */
+    private ExtensionResource readResource(final URL url) {
+        ExtensionResource previousResource = null == this.previousResources ? null : this.previousResources.get(url.toString());
+        try {
+            URLConnection connection = url.openConnection();
+            if (null != previousResource) {
+                connection.setUseCaches(false);
+            }
+
+            long lastModified = connection.getLastModified();
+            if (null != previousResource && 0 != lastModified && lastModified == previousResource.lastModified) {
+                return previousResource;
+            }
+
+            byte[] content;
+            try (InputStream inputStream = connection.getInputStream()) {
+                content = this.readAllBytes(inputStream);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length);
+            long checksum = crc.getValue();
+            if (null != previousResource && checksum == previousResource.checksum) {
+                return new ExtensionResource(lastModified, checksum, previousResource.names, previousResource.classNames);
+            }
+
+            List<String> names = new ArrayList<>();
+            List<String> classNames = new ArrayList<>();
+            ExtensionListing.parse(content, new ExtensionListing.Visitor() {
+                @Override
+                public void extension(final String name, final String className, final int lineNumber) {
+                    names.add(name);
+                    classNames.add(className);
+                }
+
+                @Override
+                public void malformed(final String line, final int lineNumber, final String reason) {
+                    log.warn("Skip malformed @SPI extension line:[{}] at {}:{}, {}", line, url, lineNumber, reason);
+                }
+            });
+
+            return new ExtensionResource(lastModified, checksum, names, classNames);
+        } catch (IOException e) {
+            throw new IllegalStateException("Load @SPI extension resources error", e);
+        }
+    }
+
+    private byte[] readAllBytes(final InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @param preloaded the class, or the failure to load it, from a discovery thread; {@code null} to load it here
+     */
+    private void loadClass(final List<ExtensionHolder<T>> holders, final String name, final String className, final Object preloaded,
+                           final URL source, final ClassLoader loader) throws ClassNotFoundException {
+        if (this.notContainsClazz(className) && !this.reuseHolder(holders, className)) {
+            if (ExtensionProperties.lazyEnabled()) {
+                this.undescribed = true;
+                this.registerEntity(holders, ExtensionEntity.builder().name(name).className(className).source(source).build(), true);
+                return;
+            }
+
+            // Loaded uninitialized to read @SPI, initialized only once its conditions match.
+            Class<?> implClass = null == preloaded ? this.forName(className, loader, false) : this.preloaded(preloaded);
+            ExtensionEntity entity = this.describe(implClass, name, source);
+            boolean active = this.isActive(entity);
+            if (active) {
+                Class.forName(className, true, loader);
+            }
+            this.registerEntity(holders, entity, active);
+        }
+    }
+
+    /**
+     * @return the preloaded class, or rethrows the failure to load it, as {@link #forName} would have on this thread
+     */
+    private Class<?> preloaded(final Object preloaded) throws ClassNotFoundException {
+        if (preloaded instanceof ClassNotFoundException) {
+            throw (ClassNotFoundException) preloaded;
+        }
+        if (preloaded instanceof RuntimeException) {
+            throw (RuntimeException) preloaded;
+        }
+        if (preloaded instanceof Error) {
+            throw (Error) preloaded;
+        }
+
+        Class<?> implClass = (Class<?>) preloaded;
+        this.anchor(implClass);
+
+        return implClass;
+    }
+
+    /**
+     * @param name the name given in the listing file, which takes precedence over {@code @SPI} and the generated name
+     */
+    private ExtensionEntity describe(final Class<?> implClass, final String name, final URL source) {
+        ExtensionEntity.ExtensionEntityBuilder builder = ExtensionEntity.builder()
+                .name(this.extensionNameGenerator.generate(implClass))
+                .order(0)
+                .scope(Scoped.SINGLETON)
+                .targetClass(implClass)
+                .source(source)
+                .condition(ExtensionCondition.NONE);
+
+        SPI spi = implClass.getAnnotation(SPI.class);
+        if (null != spi) {
+            builder.name(spi.value()).order(spi.order()).scope(spi.scope()).condition(ExtensionCondition.of(spi));
+        }
+        if (null != name) {
+            builder.name(name);
+        }
+
+        return builder.build();
+    }
+
+    private ExtensionEntity copyOf(final ExtensionEntity entity, final Class<?> implClass) {
+        return ExtensionEntity.builder()
+                .name(entity.getName())
+                .order(entity.getOrder())
+                .scope(entity.getScope())
+                .targetClass(implClass)
+                .source(entity.getSource())
+                .condition(entity.getCondition())
+                .build();
+    }
+
+    private Class<?> forName(final String className, final ClassLoader loader, final boolean initialize) throws ClassNotFoundException {
+        long start = this.metrics.isEnabled() ? System.nanoTime() : 0L;
+        Class<?> implClass = Class.forName(className, initialize, loader);
+        if (this.metrics.isEnabled()) {
+            this.metrics.classLoaded(this.targetClass, className, System.nanoTime() - start);
+        }
+
+        if (!this.targetClass.isAssignableFrom(implClass)) {
+            throw new IllegalStateException("Load @SPI extension class: " + implClass + " failed, subtype is not of " + this.targetClass);
+        }
+        this.anchor(implClass);
+
+        return implClass;
+    }
+
+    /**
+     * Anchors this registry to the first class it holds that its own {@code ClassLoader} defines; classes of parent
+     * loaders never keep that loader reachable.
+     */
+    private void anchor(final Class<?> implClass) {
+        if (null != this.anchor.get() || implClass.getClassLoader() != this.getClassLoader()) {
+            return;
+        }
+
+        if (this.anchor.compareAndSet(null, implClass)) {
+            ANCHORS.get(implClass).add(this);
+            this.reference.registry = null;
+        }
+    }
+
+    private void registerEntity(final List<ExtensionHolder<T>> holders, final ExtensionEntity ext, final boolean active) {
+        ExtensionHolder<T> holder = new ExtensionHolder<>(ext);
+        holders.add(holder);
+        if (!active) {
+            this.inactiveHolders.add(holder);
+        }
+
+        this.registeredClassNames.add(ext.getClassName());
+    }
+
+    /**
+     * On reload, carries the holder of a class that was already registered over to this registry.
+     */
+    private boolean reuseHolder(final List<ExtensionHolder<T>> holders, final String className) {
+        if (null == this.previousHolders) {
+            return false;
+        }
+
+        ExtensionHolder<T> holder = this.previousHolders.get(className);
+        if (null == holder || holder.isFailed()) {
+            return false;
+        }
+
+        holders.add(holder);
+        this.registeredClassNames.add(className);
+        if (holder.isResolved()) {
+            this.anchor(holder.getEntity().getTargetClass());
+        }
+        if (!holder.isDescribed()) {
+            this.undescribed = true;
+        } else if (!this.isActive(holder.getEntity())) {
+            this.inactiveHolders.add(holder);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the extension has no activation conditions or all of them match
+     */
+    private boolean isActive(final ExtensionEntity entity) {
+        ExtensionCondition condition = entity.getCondition();
+        boolean active = null == condition || condition.matches(this.requireClassLoader());
+        if (!active) {
+            log.debug("Skip inactive @SPI extension:[{}], {}", entity.getClassName(), condition);
+        }
+
+        return active;
+    }
+
+    private boolean notContainsClazz(final String className) {
+        return !this.registeredClassNames.contains(className);
+    }
+
+    // ----------------------------------------------------------------
+
+    private T initInstance(final ExtensionHolder<T> holder, final Class<?>[] types, final Object[] args) throws Throwable {
+        T entity;
+
+        boolean measured = this.metrics.isEnabled();
+        long start = measured ? System.nanoTime() : 0L;
+        if (null != types && null != args) {
+            entity = this.getInstantiator(holder.getEntity().getTargetClass(), types).instantiate(args);
+            if (!ExtensionInjectionPlan.of(holder.getEntity().getTargetClass()).getSetterDependencies().isEmpty()) {
+                ((InjectingExtensionInstantiator) this.getInstantiator(holder)).injectSetters(entity);
+            }
+        } else {
+            entity = this.getInstantiator(holder).instantiate(null);
+        }
+        if (measured) {
+            long instantiated = System.nanoTime();
+            this.metrics.instantiated(this.targetClass, holder.getEntity().getName(), instantiated - start);
+            start = instantiated;
+        }
+
+        if (entity instanceof LifeCycle) {
+            ((LifeCycle) entity).start();
+            if (entity instanceof InitializeLifeCycle) {
+                ((InitializeLifeCycle) entity).init();
+            }
+            if (measured) {
+                this.metrics.initialized(this.targetClass, holder.getEntity().getName(), System.nanoTime() - start);
+            }
+        }
+
+        return entity;
+    }
+
+    private ExtensionInstantiator<T> getInstantiator(final ExtensionHolder<T> holder) throws ReflectiveOperationException {
+        ExtensionInstantiator<T> instantiator = holder.getInstantiator();
+        if (null == instantiator) {
+            instantiator = this.createInstantiator(holder.getEntity().getTargetClass());
+            holder.setInstantiator(instantiator);
+        }
+
+        return instantiator;
+    }
+
+    private ExtensionInstantiator<T> createInstantiator(final Class<?> implClass) throws ReflectiveOperationException {
+        ExtensionInjectionPlan plan = ExtensionInjectionPlan.of(implClass);
+        if (plan.isEmpty()) {
+            return ExtensionInstantiators.create(this.targetClass, implClass);
+        }
+
+        return new InjectingExtensionInstantiator(implClass, plan, ExtensionInstantiators.create(this.targetClass, implClass, plan.getConstructorTypes()));
+    }
+
+    private ExtensionInstantiator<T> getInstantiator(final Class<?> implClass, final Class<?>[] types) throws ReflectiveOperationException {
+        ConstructorKey key = new ConstructorKey(implClass, types);
+        ExtensionInstantiator<T> instantiator = this.cachedConstructorInstantiators.get(key);
+        if (null == instantiator) {
+            instantiator = ExtensionInstantiators.create(this.targetClass, implClass, types.clone());
+            this.cachedConstructorInstantiators.putIfAbsent(new ConstructorKey(implClass, types.clone()), instantiator);
+        }
+
+        return instantiator;
+    }
+
+    /**
+     * Creates an extension through its {@code @Inject} constructor, then calls its {@code @Inject} setters. The loader of
+     * every dependency is looked up once; each instance only pays for the lookups of the dependencies themselves.
+     * While the dependencies are resolved, the class is on the creation path of the thread, where a cycle shows up as
+     * a class being created again.
+     */
+    private final class InjectingExtensionInstantiator implements ExtensionInstantiator<T> {
+
+        private final Class<?> implClass;
+        private final ExtensionInjectionPlan plan;
+        private final ExtensionInstantiator<T> constructor;
+        private final ExtensionLoader<?>[] constructorLoaders;
+        private final ExtensionLoader<?>[] setterLoaders;
+
+        private InjectingExtensionInstantiator(final Class<?> implClass, final ExtensionInjectionPlan plan, final ExtensionInstantiator<T> constructor) {
+            this.implClass = implClass;
+            this.plan = plan;
+            this.constructor = constructor;
+            this.constructorLoaders = loadersOf(plan.getConstructorDependencies());
+            this.setterLoaders = loadersOf(plan.getSetterDependencies());
+        }
+
+        @Override
+        public T instantiate(final Object[] args) throws Throwable {
+            List<Class<?>> creating = this.enter();
+            try {
+                T instance = this.constructor.instantiate(null == this.plan.getConstructorTypes()
+                        ? null
+                        : this.resolve(this.plan.getConstructorDependencies(), this.constructorLoaders));
+                this.plan.inject(instance, this.resolve(this.plan.getSetterDependencies(), this.setterLoaders));
+
+                return instance;
+            } finally {
+                creating.remove(creating.size() - 1);
+            }
+        }
+
+        private void injectSetters(final T instance) throws Throwable {
+            if (0 == this.setterLoaders.length) {
+                return;
+            }
+
+            List<Class<?>> creating = this.enter();
+            try {
+                this.plan.inject(instance, this.resolve(this.plan.getSetterDependencies(), this.setterLoaders));
+            } finally {
+                creating.remove(creating.size() - 1);
+            }
+        }
+
+        /**
+         * @throws IllegalStateException if the class is already being created by this thread
+         */
+        private List<Class<?>> enter() {
+            List<Class<?>> creating = CREATING.get();
+            int index = creating.indexOf(this.implClass);
+            if (index >= 0) {
+                List<Class<?>> cycle = new ArrayList<>(creating.subList(index, creating.size()));
+                cycle.add(this.implClass);
+                throw cycleException(cycle);
+            }
+
+            creating.add(this.implClass);
+
+            return creating;
+        }
+
+        private Object[] resolve(final List<ExtensionDependency> dependencies, final ExtensionLoader<?>[] loaders) {
+            ClassLoader classLoader = ExtensionRegistry.this.requireClassLoader();
+            Object[] extensions = new Object[loaders.length];
+            for (int i = 0; i < extensions.length; i++) {
+                ExtensionDependency dependency = dependencies.get(i);
+                extensions[i] = dependency.isDefault() ? loaders[i].load(classLoader) : loaders[i].load(dependency.getName(), classLoader);
+                if (null == extensions[i]) {
+                    throw new IllegalStateException("Not found @SPI extension: " + dependency + " to inject");
+                }
+            }
+
+            return extensions;
+        }
+
+        private ExtensionLoader<?>[] loadersOf(final List<ExtensionDependency> dependencies) {
+            ExtensionLoader<?>[] loaders = new ExtensionLoader<?>[dependencies.size()];
+            for (int i = 0; i < loaders.length; i++) {
+                loaders[i] = ExtensionLoader.getExtensionLoader(dependencies.get(i).getType());
+            }
+
+            return loaders;
+        }
+    }
+
+    private static final class ExtensionResource {
+
+        private final long lastModified;
+        private final long checksum;
+        /**
+         * The names given in the file, {@code null} where a line holds a class name only; parallel to {@link #classNames}.
+         */
+        private final List<String> names;
+        private final List<String> classNames;
+
+        private ExtensionResource(final long lastModified, final long checksum, final List<String> names, final List<String> classNames) {
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.names = names;
+            this.classNames = classNames;
+        }
+    }
+
+    private static final class DiscoveredResource {
+
+        private final ExtensionResource resource;
+        /**
+         * Per listed class, parallel to {@link ExtensionResource#classNames}: the class loaded uninitialized, the failure
+         * to load it, or {@code null}; the array itself is {@code null} without preloading.
+         */
+        private final Object[] classes;
+
+        private DiscoveredResource(final ExtensionResource resource, final Object[] classes) {
+            this.resource = resource;
+            this.classes = classes;
+        }
+    }
+
+    private static final class MetricsHolder {
+
+        private static final ExtensionMetrics METRICS = discover();
+
+        private static ExtensionMetrics discover() {
+            List<ExtensionMetrics> metrics = ExtensionLoader.getExtensionLoader(ExtensionMetrics.class)
+                    .loads(ExtensionRegistry.class.getClassLoader());
+
+            return metrics.isEmpty() ? NoopExtensionMetrics.INSTANCE : metrics.get(0);
+        }
+    }
+
+    /**
+     * How an {@link ExtensionLoader} holds a registry: strongly until the registry is anchored to a class of its
+     * {@code ClassLoader}, weakly from then on, so that the loader never keeps its own {@code ClassLoader} keys reachable.
+     */
+    static final class RegistryReference<T> extends WeakReference<ExtensionRegistry<T>> {
+
+        private volatile ExtensionRegistry<T> registry;
+
+        private RegistryReference(final ExtensionRegistry<T> registry) {
+            super(registry);
+            this.registry = registry;
+        }
+
+        /**
+         * @return the registry; {@code null} only once its {@code ClassLoader} is no longer reachable
+         */
+        ExtensionRegistry<T> registry() {
+            ExtensionRegistry<T> registry = this.registry;
+
+            return null != registry ? registry : this.get();
+        }
+    }
+
+    private static final class ConstructorKey {
+
+        private final Class<?> implClass;
+        private final Class<?>[] types;
+        private final int hash;
+
+        private ConstructorKey(final Class<?> implClass, final Class<?>[] types) {
+            this.implClass = implClass;
+            this.types = types;
+            this.hash = 31 * implClass.hashCode() + Arrays.hashCode(types);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ConstructorKey)) return false;
+            ConstructorKey that = (ConstructorKey) o;
+            return this.implClass == that.implClass && Arrays.equals(this.types, that.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.loader;
+
+import java.util.List;
+
+/**
+ * {@code FrozenExtensionRegistry}
+ * <p>
+ * The read-only form an {@link ExtensionRegistry} is compiled into by {@link ExtensionLoader#freezeAll()}:
+ * all singletons are created up front and reachable through final fields only, by name table handle, as the
+ * default extension and as the {@code loads()} list. Prototypes and constructor-argument lookups still go
+ * through the underlying registry.
+ * <p>
+ * Unlike a registry, it holds its {@code ClassLoader} strongly; a frozen loader cannot be released.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+final class FrozenExtensionRegistry<T> {
+
+    private final ClassLoader classLoader;
+    private final ExtensionRegistry<T> registry;
+
+    private final T defaultInstance;
+    private final ExtensionNameTable<T> nameTable;
+    private final Object[] singletons;
+    private final List<T> singletonList;
+
+    FrozenExtensionRegistry(
+            final ClassLoader classLoader,
+            final ExtensionRegistry<T> registry,
+            final T defaultInstance,
+            final ExtensionNameTable<T> nameTable,
+            final Object[] singletons,
+            final List<T> singletonList) {
+        this.classLoader = classLoader;
+        this.registry = registry;
+        this.defaultInstance = defaultInstance;
+        this.nameTable = nameTable;
+        this.singletons = singletons;
+        this.singletonList = singletonList;
+    }
+
+    ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    ExtensionRegistry<T> getRegistry() {
+        return this.registry;
+    }
+
+    // ----------------------------------------------------------------
+
+    T load() {
+        T instance = this.defaultInstance;
+
+        return null != instance ? instance : this.registry.load();
+    }
+
+    T load(final String name) {
+        int handle = this.nameTable.indexOf(name);
+
+        return ExtensionNameTable.NOT_FOUND == handle ? this.registry.load(name, null, null) : this.get(handle);
+    }
+
+    int indexOf(final String name) {
+        return this.nameTable.indexOf(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(final int handle) {
+        Object[] singletons = this.singletons;
+        if (handle >= 0 && handle < singletons.length && null != singletons[handle]) {
+            return (T) singletons[handle];
+        }
+
+        return this.registry.get(handle);
+    }
+
+    List<T> loads() {
+        List<T> singletonList = this.singletonList;
+
+        return null != singletonList ? singletonList : this.registry.loads();
+    }
+
+    List<T> loads(final String group) {
+        return this.registry.loads(group);
+    }
+}
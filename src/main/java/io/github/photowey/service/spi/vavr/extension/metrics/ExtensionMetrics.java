@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.metrics;
+
+/**
+ * {@code ExtensionMetrics}
+ * <p>
+ * Receives the timings and counters of the extension loader. Implementations are discovered as {@code @SPI}
+ * extensions of this interface through the library's {@code ClassLoader} (the one with the lowest order wins);
+ * without any, {@link NoopExtensionMetrics} is used.
+ * <p>
+ * Callbacks run on the hot path of the calling thread and must be cheap and thread-safe. No clock is read and no
+ * callback is made while {@link #isEnabled()} returns {@code false}. Durations are in nanoseconds.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public interface ExtensionMetrics {
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * One interface was scanned, either from the extension index ({@code urls == 0}) or from {@code urls} resource files.
+     */
+    default void scanned(final Class<?> targetClass, final int urls, final long durationNanos) {
+
+    }
+
+    default void classLoaded(final Class<?> targetClass, final String className, final long durationNanos) {
+
+    }
+
+    /**
+     * A new instance was constructed, excluding {@code start()}/{@code init()}.
+     */
+    default void instantiated(final Class<?> targetClass, final String name, final long durationNanos) {
+
+    }
+
+    default void cacheHit(final Class<?> targetClass, final String name) {
+
+    }
+
+    default void cacheMiss(final Class<?> targetClass, final String name) {
+
+    }
+
+    /**
+     * {@code start()} and {@code init()} of a {@code LifeCycle} extension returned.
+     */
+    default void initialized(final Class<?> targetClass, final String name, final long durationNanos) {
+
+    }
+
+    default void stopped(final Class<?> targetClass, final String name, final long durationNanos) {
+
+    }
+}
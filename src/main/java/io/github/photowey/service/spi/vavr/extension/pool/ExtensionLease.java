@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.pool;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code ExtensionLease}
+ * <p>
+ * An instance taken from an {@link ExtensionPool}, returned to it on {@link #close()}; meant for try-with-resources.
+ * The instance must not be used once the lease is closed.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionLease<T> implements AutoCloseable {
+
+    private final ExtensionPool<T> pool;
+    private final T instance;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ExtensionLease(final ExtensionPool<T> pool, final T instance) {
+        this.pool = pool;
+        this.instance = instance;
+    }
+
+    public T get() {
+        if (this.released.get()) {
+            throw new IllegalStateException("Extension lease is already released");
+        }
+
+        return this.instance;
+    }
+
+    /**
+     * Returns the instance to the pool; closing again has no effect.
+     */
+    @Override
+    public void close() {
+        if (this.released.compareAndSet(false, true)) {
+            this.pool.release(this.instance);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.pool;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@code ExtensionPool}
+ * <p>
+ * The idle instances of a {@link io.github.photowey.service.spi.vavr.core.enums.Scoped#POOLED} extension.
+ * <p>
+ * The pool holds at most {@code capacity} idle instances in a slot array split into stripes, and a thread starts
+ * looking in the stripe its id maps to, so that threads mostly touch different slots. Slots are claimed and filled
+ * by compare-and-set, without locks. {@link #acquire()} creates a new instance when no idle one is found.
+ * {@link #release(Object)} hands an instance to the evictor when every slot is taken or the pool is closed.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public final class ExtensionPool<T> {
+
+    private final Supplier<T> factory;
+    private final Consumer<T> evictor;
+
+    private final AtomicReferenceArray<T> slots;
+    private final int stripes;
+
+    private volatile boolean closed;
+
+    /**
+     * @param capacity the maximum number of idle instances
+     * @param factory  creates (and initializes) a new instance
+     * @param evictor  disposes of an instance the pool does not keep
+     */
+    public ExtensionPool(final int capacity, final Supplier<T> factory, final Consumer<T> evictor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Extension pool capacity must be positive, but was: " + capacity);
+        }
+
+        this.factory = factory;
+        this.evictor = evictor;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.stripes = Math.min(Integer.highestOneBit(capacity), stripesOf(Runtime.getRuntime().availableProcessors()));
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * @return an idle instance, or a new one if there is none
+     */
+    public T acquire() {
+        int home = this.homeStripe();
+        for (int i = 0; i < this.stripes; i++) {
+            int stripe = (home + i) & (this.stripes - 1);
+            for (int slot = this.stripeStart(stripe), end = this.stripeStart(stripe + 1); slot < end; slot++) {
+                T instance = this.slots.get(slot);
+                if (null != instance && this.slots.compareAndSet(slot, instance, null)) {
+                    return instance;
+                }
+            }
+        }
+
+        return this.factory.get();
+    }
+
+    /**
+     * Returns an instance to the pool, or evicts it if the pool is full or closed.
+     */
+    public void release(final T instance) {
+        if (null == instance) {
+            return;
+        }
+
+        if (!this.closed) {
+            int home = this.homeStripe();
+            for (int i = 0; i < this.stripes; i++) {
+                int stripe = (home + i) & (this.stripes - 1);
+                for (int slot = this.stripeStart(stripe), end = this.stripeStart(stripe + 1); slot < end; slot++) {
+                    if (null == this.slots.get(slot) && this.slots.compareAndSet(slot, null, instance)) {
+                        // Closed meanwhile: whoever takes it back out evicts it, either this thread or close().
+                        if (this.closed && this.slots.compareAndSet(slot, instance, null)) {
+                            this.evictor.accept(instance);
+                        }
+
+                        return;
+                    }
+                }
+            }
+        }
+
+        this.evictor.accept(instance);
+    }
+
+    /**
+     * @return a lease of an idle or new instance, returned to the pool on {@link ExtensionLease#close()}
+     */
+    public ExtensionLease<T> lease() {
+        return new ExtensionLease<>(this, this.acquire());
+    }
+
+    /**
+     * Evicts every idle instance; instances released afterward are evicted as well.
+     */
+    public void close() {
+        this.closed = true;
+        for (int slot = 0; slot < this.slots.length(); slot++) {
+            T instance = this.slots.getAndSet(slot, null);
+            if (null != instance) {
+                this.evictor.accept(instance);
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    public int capacity() {
+        return this.slots.length();
+    }
+
+    /**
+     * @return the number of idle instances, a snapshot
+     */
+    public int idle() {
+        int idle = 0;
+        for (int slot = 0; slot < this.slots.length(); slot++) {
+            if (null != this.slots.get(slot)) {
+                idle++;
+            }
+        }
+
+        return idle;
+    }
+
+    // ----------------------------------------------------------------
+
+    private int homeStripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+
+        return (hash ^ (hash >>> 16)) & (this.stripes - 1);
+    }
+
+    private int stripeStart(final int stripe) {
+        return (int) ((long) stripe * this.slots.length() / this.stripes);
+    }
+
+    private static int stripesOf(final int processors) {
+        return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    }
+}
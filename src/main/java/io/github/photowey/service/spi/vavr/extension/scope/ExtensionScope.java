@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * {@code ExtensionScope}
+ * <p>
+ * A custom scope of {@code @SPI(scope = Scoped.CUSTOM, customScope = "<name>")} extensions, such as one instance per
+ * request. A scope is an extension itself: listed in
+ * {@code META-INF/extensions/io.github.photowey.service.spi.vavr.extension.scope.ExtensionScope} and found by its
+ * {@code @SPI} name, it is looked up once per extension using it.
+ * <p>
+ * The scope owns the instances it keeps; stopping {@code LifeCycle} instances when it ends is up to the scope.
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public interface ExtensionScope {
+
+    /**
+     * @param id      identifies the extension, {@code <interface>#<name>}; the same {@code String} instance on every call
+     * @param factory creates and initializes a new instance
+     * @return the instance of the current scope, created by the factory if the scope has none yet
+     */
+    <T> T get(String id, Supplier<T> factory);
+}
@@ -15,10 +15,65 @@
  */
 package io.github.photowey.service.spi.vavr.extension.factory;
 
+import io.github.photowey.service.spi.vavr.core.annotation.Adaptive;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleRecord;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.ExtensionLifeCycleReport;
+import io.github.photowey.service.spi.vavr.extension.pool.ExtensionLease;
+import io.github.photowey.service.spi.vavr.service.AdaptiveTestSPI;
+import io.github.photowey.service.spi.vavr.service.AliasedScopedTestSPI;
+import io.github.photowey.service.spi.vavr.service.AlphaDiscoveryTestSPI;
+import io.github.photowey.service.spi.vavr.service.BetaDiscoveryTestSPI;
+import io.github.photowey.service.spi.vavr.service.BlockingConcurrentTestSPI;
+import io.github.photowey.service.spi.vavr.service.ConcurrentTestSPI;
+import io.github.photowey.service.spi.vavr.service.ConditionalTestSPI;
+import io.github.photowey.service.spi.vavr.service.ConstructorInjectTestSPI;
+import io.github.photowey.service.spi.vavr.service.CountingConcurrentTestSPI;
+import io.github.photowey.service.spi.vavr.service.CycleTestSPI;
+import io.github.photowey.service.spi.vavr.service.DefaultTestSPI;
+import io.github.photowey.service.spi.vavr.service.DiscoveryTestSPI;
+import io.github.photowey.service.spi.vavr.service.HelloWorldTestSPI;
+import io.github.photowey.service.spi.vavr.service.InjectTestSPI;
+import io.github.photowey.service.spi.vavr.service.PooledScopedTestSPI;
+import io.github.photowey.service.spi.vavr.service.PropertyConditionalTestSPI;
+import io.github.photowey.service.spi.vavr.service.PreloadTestSPI;
+import io.github.photowey.service.spi.vavr.service.PrototypeTestSPI;
+import io.github.photowey.service.spi.vavr.service.RaceCycleTestSPI;
+import io.github.photowey.service.spi.vavr.service.RequestExtensionScope;
+import io.github.photowey.service.spi.vavr.service.RpcConditionalTestSPI;
+import io.github.photowey.service.spi.vavr.service.ScopedTestSPI;
+import io.github.photowey.service.spi.vavr.service.SetterInjectTestSPI;
+import io.github.photowey.service.spi.vavr.service.StopTestSPI;
 import io.github.photowey.service.spi.vavr.service.TestSPI;
+import io.github.photowey.service.spi.vavr.service.ThreadScopedTestSPI;
+import io.github.photowey.service.spi.vavr.service.WebConditionalTestSPI;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
 /**
  * {@code ExtensionFactoryTest}
  *
@@ -36,4 +91,422 @@ class ExtensionFactoryTest {
         TestSPI testSPI2 = ExtensionFactory.create(TestSPI.class);
         Assertions.assertEquals(testSPI.hashCode(), testSPI2.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreatePrototypeSPI() {
+        PrototypeTestSPI first = ExtensionFactory.create(PrototypeTestSPI.class, "greeting");
+        PrototypeTestSPI second = ExtensionFactory.create(PrototypeTestSPI.class, "greeting");
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("hello:world!", first.greeting());
+
+        PrototypeTestSPI named = ExtensionFactory.create(PrototypeTestSPI.class, "greeting", new Object[]{"spi"});
+        Assertions.assertEquals("hello:spi!", named.greeting());
+
+        PrototypeTestSPI typed = ExtensionFactory.create(PrototypeTestSPI.class, "greeting",
+                new Class<?>[]{String.class, int.class}, new Object[]{"spi", 2});
+        Assertions.assertEquals("hello:spi!hello:spi!", typed.greeting());
+    }
+
+    @Test
+    public void testCreateByHandle() {
+        int handle = ExtensionFactory.indexOf(TestSPI.class, "default");
+        Assertions.assertSame(ExtensionFactory.create(TestSPI.class, "default"), ExtensionFactory.create(TestSPI.class, handle));
+    }
+
+    /**
+     * Races thousands of virtual threads on the first creation of a singleton; skipped before Java 21.
+     */
+    @Test
+    public void testFirstCreateRacedByVirtualThreads() throws Exception {
+        int tasks = 5000;
+        ExecutorService executor = this.newVirtualThreadPerTaskExecutor();
+        ExtensionLoaderFactory.create(ConcurrentTestSPI.class).release(ExtensionFactory.class.getClassLoader());
+        CountingConcurrentTestSPI.CONSTRUCTED.set(0);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ConcurrentTestSPI>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return ExtensionFactory.create(ConcurrentTestSPI.class, "counting");
+                }));
+            }
+            start.countDown();
+
+            Set<ConcurrentTestSPI> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<ConcurrentTestSPI> future : futures) {
+                instances.add(future.get(30, TimeUnit.SECONDS));
+            }
+
+            Assertions.assertEquals(1, instances.size());
+            Assertions.assertEquals(1, CountingConcurrentTestSPI.CONSTRUCTED.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCreateAsync() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExtensionLoaderFactory.create(ConcurrentTestSPI.class).release(ExtensionFactory.class.getClassLoader());
+        BlockingConcurrentTestSPI.reset();
+        try {
+            CompletableFuture<ConcurrentTestSPI> first = ExtensionFactory.createAsync(ConcurrentTestSPI.class, "blocking", executor);
+            Assertions.assertTrue(BlockingConcurrentTestSPI.awaitInitStarted());
+            Assertions.assertFalse(first.isDone());
+
+            // Joins the creation in flight instead of scheduling another one.
+            CompletableFuture<ConcurrentTestSPI> second = ExtensionFactory.createAsync(ConcurrentTestSPI.class, "blocking",
+                    task -> Assertions.fail("Coalesced creation must not be scheduled"));
+            Assertions.assertFalse(second.isDone());
+
+            BlockingConcurrentTestSPI.releaseInit();
+            ConcurrentTestSPI created = first.get(10, TimeUnit.SECONDS);
+            Assertions.assertSame(created, second.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, BlockingConcurrentTestSPI.CONSTRUCTED.get());
+
+            CompletableFuture<ConcurrentTestSPI> cached = ExtensionFactory.createAsync(ConcurrentTestSPI.class, "blocking");
+            Assertions.assertTrue(cached.isDone());
+            Assertions.assertSame(created, cached.join());
+            Assertions.assertTrue(ExtensionFactory.createsAsync(ConcurrentTestSPI.class).get(10, TimeUnit.SECONDS).contains(created));
+        } finally {
+            BlockingConcurrentTestSPI.releaseInit();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAcquirePooled() {
+        try (ExtensionLease<ScopedTestSPI> lease = ExtensionFactory.acquire(ScopedTestSPI.class, "pooled")) {
+            ScopedTestSPI first = lease.get();
+            try (ExtensionLease<ScopedTestSPI> concurrent = ExtensionFactory.acquire(ScopedTestSPI.class, "pooled")) {
+                Assertions.assertNotSame(first, concurrent.get());
+            }
+        }
+        try (ExtensionLease<ScopedTestSPI> lease = ExtensionFactory.acquire(ScopedTestSPI.class, "pooled")) {
+            Assertions.assertNotNull(lease.get());
+        }
+        Assertions.assertEquals(2, PooledScopedTestSPI.CONSTRUCTED.get());
+        Assertions.assertNull(ExtensionFactory.acquire(ScopedTestSPI.class, "notFoundSPI"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExtensionFactory.acquire(TestSPI.class, "helloworld"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExtensionFactory.create(ScopedTestSPI.class, "pooled"));
+
+        int stopped = PooledScopedTestSPI.STOPPED.get();
+        Assertions.assertTrue(ExtensionFactory.stopWithReport(ScopedTestSPI.class).isSuccess());
+        Assertions.assertEquals(stopped + 2, PooledScopedTestSPI.STOPPED.get());
+    }
+
+    @Test
+    public void testThreadScope() throws Exception {
+        ScopedTestSPI current = ExtensionFactory.create(ScopedTestSPI.class, "thread");
+        Assertions.assertSame(current, ExtensionFactory.create(ScopedTestSPI.class, "thread"));
+        Assertions.assertSame(current, ExtensionFactory.createAsync(ScopedTestSPI.class, "thread").get(10, TimeUnit.SECONDS));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ScopedTestSPI other = executor.submit(() -> ExtensionFactory.create(ScopedTestSPI.class, "thread")).get(10, TimeUnit.SECONDS);
+            Assertions.assertNotSame(current, other);
+            Assertions.assertSame(other, executor.submit(() -> ExtensionFactory.create(ScopedTestSPI.class, "thread")).get(10, TimeUnit.SECONDS));
+
+            // Stopping stops the instance of every thread, the pooled one included, and detaches it from that thread.
+            int stopped = ThreadScopedTestSPI.STOPPED.get();
+            ExtensionFactory.stop(ScopedTestSPI.class);
+            Assertions.assertEquals(stopped + 2, ThreadScopedTestSPI.STOPPED.get());
+            Assertions.assertNotSame(current, ExtensionFactory.create(ScopedTestSPI.class, "thread"));
+            Assertions.assertNotSame(other, executor.submit(() -> ExtensionFactory.create(ScopedTestSPI.class, "thread")).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testListingFileName() {
+        Assertions.assertTrue(ExtensionFactory.create(ScopedTestSPI.class, "aliased") instanceof AliasedScopedTestSPI);
+    }
+
+    /**
+     * A class listed twice is registered once, under its first name; of the extensions sharing a name, the last one listed wins.
+     */
+    @Test
+    public void testDuplicateExtensions() throws Exception {
+        Path root = Files.createTempDirectory("service-spi-duplicate");
+        Path listing = root.resolve("META-INF/extensions/" + DiscoveryTestSPI.class.getName());
+        Files.createDirectories(listing.getParent());
+        Files.write(listing, (AlphaDiscoveryTestSPI.class.getName() + "\n"
+                + "omega=" + AlphaDiscoveryTestSPI.class.getName() + "\n"
+                + "alpha=" + BetaDiscoveryTestSPI.class.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, ClassLoader.getSystemClassLoader())) {
+            Assertions.assertTrue(ExtensionFactory.create(DiscoveryTestSPI.class, "alpha", classLoader) instanceof BetaDiscoveryTestSPI);
+            Assertions.assertNull(ExtensionFactory.create(DiscoveryTestSPI.class, "omega", classLoader));
+            Assertions.assertNull(ExtensionFactory.create(DiscoveryTestSPI.class, "beta", classLoader));
+            Assertions.assertEquals(2, ExtensionLoaderFactory.create(DiscoveryTestSPI.class).loads(classLoader).size());
+            ExtensionFactory.release(classLoader);
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testCustomScope() {
+        RequestExtensionScope.begin();
+        ScopedTestSPI first;
+        try {
+            first = ExtensionFactory.create(ScopedTestSPI.class, "request");
+            Assertions.assertSame(first, ExtensionFactory.create(ScopedTestSPI.class, "request"));
+        } finally {
+            RequestExtensionScope.end();
+        }
+
+        RequestExtensionScope.begin();
+        try {
+            Assertions.assertNotSame(first, ExtensionFactory.create(ScopedTestSPI.class, "request"));
+        } finally {
+            RequestExtensionScope.end();
+        }
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, () -> ExtensionFactory.create(ScopedTestSPI.class, "request"));
+        Assertions.assertEquals("No request in progress", e.getMessage());
+    }
+
+    @Test
+    public void testAdaptive() {
+        AdaptiveTestSPI adaptive = ExtensionFactory.adaptive(AdaptiveTestSPI.class);
+
+        Assertions.assertEquals("Hello, photowey", adaptive.greet("english", "photowey"));
+        Assertions.assertEquals("Ni hao, photowey", adaptive.greet(new String("chinese".toCharArray()), "photowey"));
+        Assertions.assertEquals("Hello, photowey", adaptive.greet(null, "photowey"));
+        Assertions.assertEquals("Ni hao, photowey", adaptive.greetIn("photowey", null));
+        Assertions.assertEquals("Hello, photowey", adaptive.greetIn("photowey", new StringBuilder("english")));
+        Assertions.assertEquals("Ni hao, photowey", adaptive.greetBy(AdaptiveTestSPI.Language.CHINESE, "photowey"));
+        Assertions.assertEquals("Hello, photowey", adaptive.greetBy(null, "photowey"));
+
+        Assertions.assertEquals("Hello, photowey / Ni hao, photowey", adaptive.greetAll("photowey"));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> adaptive.greet("french", "photowey"));
+        Assertions.assertThrows(IllegalStateException.class, () -> adaptive.greet("", "photowey"));
+        Assertions.assertThrows(IllegalStateException.class, () -> adaptive.greetBy(AdaptiveTestSPI.Language.FRENCH, "photowey"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExtensionFactory.adaptive(TestSPI.class));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExtensionFactory.adaptive(UnadaptiveTestSPI.class));
+    }
+
+    @Test
+    public void testConditionalActivation() {
+        List<ConditionalTestSPI> web = ExtensionFactory.creates(ConditionalTestSPI.class, "web");
+        Assertions.assertEquals(2, web.size());
+        Assertions.assertTrue(web.get(0) instanceof WebConditionalTestSPI);
+        Assertions.assertTrue(web.get(1) instanceof RpcConditionalTestSPI);
+        Assertions.assertSame(web, ExtensionFactory.creates(ConditionalTestSPI.class, "web"));
+        Assertions.assertEquals(Collections.singletonList(web.get(1)), ExtensionFactory.creates(ConditionalTestSPI.class, "rpc"));
+        Assertions.assertTrue(ExtensionFactory.creates(ConditionalTestSPI.class, "admin").isEmpty());
+        Assertions.assertEquals(web, ExtensionFactory.creates(ConditionalTestSPI.class));
+
+        Assertions.assertNull(ExtensionFactory.create(ConditionalTestSPI.class, "missing"));
+        Assertions.assertNull(ExtensionFactory.create(ConditionalTestSPI.class, "dev"));
+        Assertions.assertNull(ExtensionFactory.create(ConditionalTestSPI.class, "property"));
+        Assertions.assertEquals(0, ConditionalTestSPI.INACTIVE_INITIALIZED.get());
+
+        System.setProperty(PropertyConditionalTestSPI.PROPERTY, "on");
+        try {
+            Assertions.assertTrue(ExtensionFactory.reload(ConditionalTestSPI.class).contains(ConditionalTestSPI.class));
+            Assertions.assertTrue(ExtensionFactory.create(ConditionalTestSPI.class, "property") instanceof PropertyConditionalTestSPI);
+            Assertions.assertEquals(3, ExtensionFactory.creates(ConditionalTestSPI.class, "web").size());
+        } finally {
+            System.clearProperty(PropertyConditionalTestSPI.PROPERTY);
+            ExtensionFactory.reload(ConditionalTestSPI.class);
+        }
+
+        Assertions.assertNull(ExtensionFactory.create(ConditionalTestSPI.class, "property"));
+        Assertions.assertEquals(2, ExtensionFactory.creates(ConditionalTestSPI.class, "web").size());
+    }
+
+    @Test
+    public void testInjection() {
+        ConstructorInjectTestSPI constructor = (ConstructorInjectTestSPI) ExtensionFactory.create(InjectTestSPI.class, "constructor");
+        Assertions.assertSame(ExtensionFactory.create(TestSPI.class), constructor.getDefaultTest());
+        Assertions.assertTrue(constructor.getDefaultTest() instanceof DefaultTestSPI);
+        Assertions.assertTrue(constructor.getHelloWorld() instanceof HelloWorldTestSPI);
+        Assertions.assertSame(constructor, ExtensionFactory.create(InjectTestSPI.class));
+
+        SetterInjectTestSPI setter = (SetterInjectTestSPI) ExtensionFactory.create(InjectTestSPI.class, "setter");
+        Assertions.assertSame(constructor, setter.getDelegate());
+        Assertions.assertTrue(setter.isInjectedBeforeInit());
+        Assertions.assertEquals("say hello:world!", setter.greet());
+        Assertions.assertNotSame(setter, ExtensionFactory.create(InjectTestSPI.class, "setter"));
+    }
+
+    @Test
+    public void testInjectionCycle() {
+        Throwable e = Assertions.assertThrows(IllegalStateException.class, () -> ExtensionFactory.create(CycleTestSPI.class, "first"));
+        while (null != e.getCause()) {
+            e = e.getCause();
+        }
+        Assertions.assertEquals("Dependency cycle of @SPI extensions: "
+                        + "io.github.photowey.service.spi.vavr.service.FirstCycleTestSPI -> "
+                        + "io.github.photowey.service.spi.vavr.service.SecondCycleTestSPI -> "
+                        + "io.github.photowey.service.spi.vavr.service.FirstCycleTestSPI",
+                e.getMessage());
+        Assertions.assertThrows(IllegalStateException.class, () -> ExtensionFactory.create(CycleTestSPI.class, "second"));
+    }
+
+    @Test
+    public void testConcurrentInjectionCycle() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<RaceCycleTestSPI> left = executor.submit(() -> ExtensionFactory.create(RaceCycleTestSPI.class, "left"));
+            Future<RaceCycleTestSPI> right = executor.submit(() -> ExtensionFactory.create(RaceCycleTestSPI.class, "right"));
+
+            // Each thread holds one side of the cycle: both fail instead of deadlocking.
+            for (Future<RaceCycleTestSPI> future : Arrays.asList(left, right)) {
+                Throwable e = Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                while (null != e.getCause()) {
+                    e = e.getCause();
+                }
+                Assertions.assertTrue(e.getMessage().startsWith("Dependency cycle of @SPI extensions: "), e.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCreatesSingletonSnapshot() {
+        List<TestSPI> first = ExtensionFactory.creates(TestSPI.class);
+        List<TestSPI> second = ExtensionFactory.creates(TestSPI.class);
+
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertSame(first, second);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+    }
+
+    @Test
+    public void testCreatesPrototypes() {
+        List<PrototypeTestSPI> first = ExtensionFactory.creates(PrototypeTestSPI.class);
+        List<PrototypeTestSPI> second = ExtensionFactory.creates(PrototypeTestSPI.class);
+
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertNotSame(first.get(0), second.get(0));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.add(second.get(0)));
+    }
+
+    @Test
+    public void testPreload() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExtensionLifeCycleReport report;
+        try {
+            report = ExtensionFactory.preload(executor, PreloadTestSPI.class, PrototypeTestSPI.class);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(report.isSuccess(), report::toString);
+        Assertions.assertEquals(3, report.getRecords().size());
+        for (ExtensionLifeCycleRecord record : report.getRecords()) {
+            Assertions.assertEquals(PreloadTestSPI.class, record.getTargetClass());
+            Assertions.assertTrue(record.getDurationNanos() >= 0);
+        }
+
+        Assertions.assertEquals(3, PreloadTestSPI.INITIALIZED.size());
+        Assertions.assertEquals("first", PreloadTestSPI.INITIALIZED.get(0));
+        Assertions.assertSame(ExtensionFactory.create(PreloadTestSPI.class, "second"), ExtensionFactory.create(PreloadTestSPI.class, "second"));
+        Assertions.assertEquals(3, PreloadTestSPI.INITIALIZED.size());
+    }
+
+    @Test
+    public void testStopInReverseOrderWithTimeout() throws Exception {
+        Assertions.assertEquals(3, ExtensionFactory.creates(StopTestSPI.class).size());
+
+        ExtensionLifeCycleReport report;
+        try {
+            report = ExtensionFactory.stop(Duration.ofMillis(200), Duration.ofSeconds(5), StopTestSPI.class);
+
+            // The stop() that timed out is interrupted, not left waiting.
+            for (int i = 0; i < 100 && !StopTestSPI.STOPPED.contains("hung"); i++) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            Assertions.assertTrue(StopTestSPI.STOPPED.contains("hung"));
+        } finally {
+            StopTestSPI.HUNG_RELEASED.countDown();
+        }
+
+        Assertions.assertEquals(3, report.getRecords().size());
+        Assertions.assertEquals("hung", report.getRecords().get(0).getName());
+        Assertions.assertEquals(1, report.getTimedOut().size());
+        Assertions.assertEquals("hung", report.getTimedOut().get(0).getName());
+        Assertions.assertTrue(report.getElapsed(TimeUnit.SECONDS) < 5);
+
+        List<String> stopped = new ArrayList<>(StopTestSPI.STOPPED);
+        stopped.remove("hung");
+        Assertions.assertEquals(Arrays.asList("second", "first"), stopped);
+    }
+
+    /**
+     * Freezing is global and irreversible, so it runs against a copy of the library in an isolated {@code ClassLoader}.
+     */
+    @Test
+    public void testFreeze() throws Exception {
+        try (URLClassLoader isolated = this.isolatedClassLoader()) {
+            Class<?> factory = isolated.loadClass(ExtensionFactory.class.getName());
+            Class<?> testSPI = isolated.loadClass(TestSPI.class.getName());
+            Method create = factory.getMethod("create", Class.class);
+            Method createByName = factory.getMethod("create", Class.class, String.class);
+            Method createWithLoader = factory.getMethod("create", Class.class, ClassLoader.class);
+            Method creates = factory.getMethod("creates", Class.class);
+
+            Object defaultSPI = create.invoke(null, testSPI);
+            Object helloworldSPI = createByName.invoke(null, testSPI, "helloworld");
+            factory.getMethod("freeze").invoke(null);
+
+            Assertions.assertTrue((Boolean) factory.getMethod("isFrozen").invoke(null));
+            Assertions.assertSame(defaultSPI, create.invoke(null, testSPI));
+            Assertions.assertSame(helloworldSPI, createByName.invoke(null, testSPI, "helloworld"));
+            Assertions.assertSame(creates.invoke(null, testSPI), creates.invoke(null, testSPI));
+            Assertions.assertNull(createByName.invoke(null, testSPI, "notFoundSPI"));
+
+            this.assertFrozen(() -> create.invoke(null, isolated.loadClass(PrototypeTestSPI.class.getName())));
+            this.assertFrozen(() -> createWithLoader.invoke(null, testSPI, ClassLoader.getSystemClassLoader()));
+            this.assertFrozen(() -> factory.getMethod("release", ClassLoader.class).invoke(null, isolated));
+        }
+    }
+
+    private ExecutorService newVirtualThreadPerTaskExecutor() {
+        ExecutorService executor = null;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Before Java 21: missing, or a preview feature that is not enabled.
+        }
+        Assumptions.assumeTrue(null != executor, "Virtual threads are not available");
+
+        return executor;
+    }
+
+    private void assertFrozen(final ReflectiveCall call) {
+        InvocationTargetException e = Assertions.assertThrows(InvocationTargetException.class, call::invoke);
+        Assertions.assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+
+    private URLClassLoader isolatedClassLoader() throws Exception {
+        List<URL> urls = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(new File(path).toURI().toURL());
+        }
+
+        return new URLClassLoader(urls.toArray(new URL[0]), null);
+    }
+
+    private interface UnadaptiveTestSPI {
+
+        @Adaptive
+        String greet(String language);
+
+        String language();
+    }
+
+    @FunctionalInterface
+    private interface ReflectiveCall {
+        void invoke() throws Exception;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.constant.ExtensionConstants;
+import io.github.photowey.service.spi.vavr.service.TestSPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * {@code ExtensionDirectoryTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionDirectoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLookupMatchesGetResources() throws Exception {
+        Path jar = this.directory.resolve("extensions.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar))) {
+            output.putNextEntry(new JarEntry("META-INF/"));
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY));
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY + TestSPI.class.getName()));
+            output.write("io.github.photowey.service.spi.vavr.service.DefaultTestSPI\n".getBytes(StandardCharsets.UTF_8));
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY + "nested/ignored"));
+            output.closeEntry();
+        }
+
+        Path classes = this.directory.resolve("classes");
+        Path listing = classes.resolve(ExtensionConstants.EXTENSION_DIRECTORY + TestSPI.class.getName());
+        Files.createDirectories(listing.getParent());
+        try (OutputStream output = Files.newOutputStream(listing)) {
+            output.write("io.github.photowey.service.spi.vavr.service.HelloWorldTestSPI\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        URL[] roots = {jar.toUri().toURL(), classes.toUri().toURL()};
+        try (URLClassLoader loader = new URLClassLoader(roots, null)) {
+            List<URL> expected = Collections.list(loader.getResources(ExtensionConstants.EXTENSION_DIRECTORY + TestSPI.class.getName()));
+            List<URL> urls = ExtensionDirectory.lookup(TestSPI.class.getName(), loader);
+
+            Assertions.assertEquals(2, urls.size());
+            Assertions.assertEquals(expected.toString(), urls.toString());
+            Assertions.assertTrue(ExtensionDirectory.lookup("nested", loader).isEmpty());
+            Assertions.assertTrue(ExtensionDirectory.lookup("io.github.photowey.NotFoundSPI", loader).isEmpty());
+        }
+    }
+
+    @Test
+    public void testJarWithoutDirectoryEntryFallsBack() throws Exception {
+        Path listed = this.directory.resolve("listed.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(listed))) {
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY));
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY + TestSPI.class.getName()));
+            output.write("io.github.photowey.service.spi.vavr.service.DefaultTestSPI\n".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+
+        // Written by shading tools: no directory entries.
+        Path shaded = this.directory.resolve("shaded.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(shaded), new Manifest())) {
+            output.putNextEntry(new JarEntry(ExtensionConstants.EXTENSION_DIRECTORY + "io.github.photowey.ShadedSPI"));
+            output.write("io.github.photowey.ShadedTestSPI\n".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+
+        URL[] roots = {listed.toUri().toURL(), shaded.toUri().toURL()};
+        try (URLClassLoader loader = new URLClassLoader(roots, null)) {
+            Assertions.assertEquals(1, ExtensionDirectory.lookup(TestSPI.class.getName(), loader).size());
+            // Not listed under any root: looked up per interface by the registry, through getResources.
+            Assertions.assertTrue(ExtensionDirectory.lookup("io.github.photowey.ShadedSPI", loader).isEmpty());
+            Assertions.assertEquals(1, Collections.list(loader.getResources(ExtensionConstants.EXTENSION_DIRECTORY + "io.github.photowey.ShadedSPI")).size());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.service.ConditionalTestSPI;
+import io.github.photowey.service.spi.vavr.service.DefaultTestSPI;
+import io.github.photowey.service.spi.vavr.service.HelloWorldTestSPI;
+import io.github.photowey.service.spi.vavr.service.RpcConditionalTestSPI;
+import io.github.photowey.service.spi.vavr.service.TestSPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@code ExtensionIndexTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionIndexTest {
+
+    @Test
+    public void testLookup() throws IOException {
+        Path root = Files.createTempDirectory("service-spi-index");
+        try {
+            Path index = root.resolve("META-INF/extensions.index");
+            Files.createDirectories(index.getParent());
+            try (Writer writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+                ExtensionIndex.write(writer, Arrays.asList(
+                        new ExtensionIndexEntry(TestSPI.class.getName(), "default", 0, Scoped.SINGLETON, DefaultTestSPI.class.getName()),
+                        new ExtensionIndexEntry(TestSPI.class.getName(), "helloworld", 0, Scoped.SINGLETON, HelloWorldTestSPI.class.getName())));
+            }
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+                List<ExtensionIndexEntry> entries = ExtensionIndex.lookup(TestSPI.class.getName(), loader);
+                Assertions.assertEquals(2, entries.size());
+                Assertions.assertEquals("default", entries.get(0).getName());
+                Assertions.assertEquals(DefaultTestSPI.class.getName(), entries.get(0).getClassName());
+                Assertions.assertEquals("helloworld", entries.get(1).getName());
+                Assertions.assertEquals(HelloWorldTestSPI.class.getName(), entries.get(1).getClassName());
+                Assertions.assertEquals(Scoped.SINGLETON, entries.get(1).getScope());
+                Assertions.assertTrue(ExtensionIndex.lookup(ConditionalTestSPI.class.getName(), loader).isEmpty());
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testStaleIndex() throws IOException {
+        Path root = Files.createTempDirectory("service-spi-index");
+        try {
+            byte[] listing = (DefaultTestSPI.class.getName() + "\n").getBytes(StandardCharsets.UTF_8);
+            Path listingPath = root.resolve("META-INF/extensions/" + TestSPI.class.getName());
+            Files.createDirectories(listingPath.getParent());
+            Files.write(listingPath, listing);
+            try (Writer writer = Files.newBufferedWriter(root.resolve("META-INF/extensions.index"), StandardCharsets.UTF_8)) {
+                ExtensionIndex.write(writer,
+                        Collections.singletonList(new ExtensionIndexEntry(TestSPI.class.getName(), "default", 0, Scoped.SINGLETON, DefaultTestSPI.class.getName())),
+                        Collections.singletonMap(TestSPI.class.getName(), ExtensionIndex.fingerprint(listing)));
+            }
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+                Assertions.assertEquals(1, ExtensionIndex.lookup(TestSPI.class.getName(), loader).size());
+
+                // An incremental build edits the listing without regenerating the index.
+                Files.write(listingPath, (HelloWorldTestSPI.class.getName() + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                ExtensionIndex.evict(loader);
+                Assertions.assertTrue(ExtensionIndex.lookup(TestSPI.class.getName(), loader).isEmpty());
+                Assertions.assertTrue(ExtensionIndex.coveredListings(TestSPI.class.getName(), loader).isEmpty());
+
+                Files.delete(listingPath);
+                ExtensionIndex.evict(loader);
+                Assertions.assertTrue(ExtensionIndex.lookup(TestSPI.class.getName(), loader).isEmpty());
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testConditionsInIndex() throws IOException {
+        ExtensionCondition condition = ExtensionCondition.of(Arrays.asList("web", "rpc"), Collections.emptyList(),
+                Collections.emptyList(), Collections.singletonList("java.util.concurrent.CompletableFuture"));
+        List<ExtensionIndexEntry> entries = Arrays.asList(
+                new ExtensionIndexEntry(ConditionalTestSPI.class.getName(), "rpc", 1, Scoped.SINGLETON, RpcConditionalTestSPI.class.getName(), condition),
+                new ExtensionIndexEntry(TestSPI.class.getName(), "default", 0, Scoped.PROTOTYPE, DefaultTestSPI.class.getName()));
+
+        StringWriter writer = new StringWriter();
+        ExtensionIndex.write(writer, entries);
+        List<ExtensionIndexEntry> read = ExtensionIndex.read(new StringReader(writer.toString()));
+        Assertions.assertEquals(entries, read);
+        Assertions.assertEquals(Arrays.asList("web", "rpc"), read.get(0).getCondition().getGroups());
+        Assertions.assertSame(ExtensionCondition.NONE, read.get(1).getCondition());
+
+        List<ExtensionIndexEntry> v1 = ExtensionIndex.read(new StringReader("a.SPI\tname\t1\tSINGLETON\ta.Impl\n"));
+        Assertions.assertEquals(new ExtensionIndexEntry("a.SPI", "name", 1, Scoped.SINGLETON, "a.Impl"), v1.get(0));
+    }
+
+    @Test
+    public void testEscapedConditionValues() throws IOException {
+        ExtensionCondition condition = ExtensionCondition.of(Collections.singletonList("web"), Collections.emptyList(),
+                Arrays.asList("service.spi.hosts=a,b", "service.spi.path=C:\\spi\tdir", ","), Collections.emptyList());
+        List<ExtensionIndexEntry> entries = Collections.singletonList(
+                new ExtensionIndexEntry("a.SPI", "name", 1, Scoped.SINGLETON, "a.Impl", condition));
+
+        StringWriter writer = new StringWriter();
+        ExtensionIndex.write(writer, entries);
+        List<ExtensionIndexEntry> read = ExtensionIndex.read(new StringReader(writer.toString()));
+
+        Assertions.assertEquals(entries, read);
+        Assertions.assertEquals(Arrays.asList("service.spi.hosts=a,b", "service.spi.path=C:\\spi\tdir", ","), read.get(0).getCondition().getProperties());
+    }
+
+    @Test
+    public void testReadMalformedIndex() {
+        Assertions.assertThrows(IOException.class, () -> ExtensionIndex.read(new StringReader("a\tb\tc\n")));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code ExtensionListingTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionListingTest {
+
+    @Test
+    public void testParse() {
+        String content = "\uFEFF# comment\r\n"
+                + "io.github.photowey.Zeta\r\n"
+                + "\n"
+                + "  alpha = io.github.photowey.Alpha   # inline comment\n"
+                + "! properties comment\n"
+                + "io.github.photowey.Outer$Inner\n"
+                + "broken name\n"
+                + "=io.github.photowey.Nameless\n"
+                + "io.github.photowey.Last";
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        ExtensionListing.parse(content.getBytes(StandardCharsets.UTF_8), visitor);
+
+        Assertions.assertEquals(Arrays.asList(
+                "null=io.github.photowey.Zeta@2",
+                "alpha=io.github.photowey.Alpha@4",
+                "null=io.github.photowey.Outer$Inner@6",
+                "null=io.github.photowey.Last@9"), visitor.extensions);
+        Assertions.assertEquals(Arrays.asList("broken name@7", "=io.github.photowey.Nameless@8"), visitor.malformed);
+    }
+
+    @Test
+    public void testStreamAcrossBufferBoundaries() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append(i % 3 == 0 ? "name" + i + "=" : "").append("io.github.photowey.generated.Extension").append(i).append('\n');
+        }
+        content.append("io.github.photowey.generated.").append(new String(new char[20000]).replace('\0', 'x'));
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        RecordingVisitor expected = new RecordingVisitor();
+        ExtensionListing.parse(bytes, expected);
+
+        RecordingVisitor streamed = new RecordingVisitor();
+        ExtensionListing.parse(new TrickleInputStream(bytes), streamed);
+
+        Assertions.assertEquals(2001, expected.extensions.size());
+        Assertions.assertEquals(expected.extensions, streamed.extensions);
+        Assertions.assertTrue(streamed.malformed.isEmpty());
+    }
+
+    // ----------------------------------------------------------------
+
+    private static final class RecordingVisitor implements ExtensionListing.Visitor {
+
+        private final List<String> extensions = new ArrayList<>();
+        private final List<String> malformed = new ArrayList<>();
+
+        @Override
+        public void extension(final String name, final String className, final int lineNumber) {
+            this.extensions.add(name + "=" + className + "@" + lineNumber);
+        }
+
+        @Override
+        public void malformed(final String line, final int lineNumber, final String reason) {
+            this.malformed.add(line + "@" + lineNumber);
+        }
+    }
+
+    /**
+     * Returns at most 1000 bytes per read, so that lines straddle the reads.
+     */
+    private static final class TrickleInputStream extends InputStream {
+
+        private final ByteArrayInputStream delegate;
+
+        private TrickleInputStream(final byte[] bytes) {
+            this.delegate = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return this.delegate.read();
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) {
+            return this.delegate.read(buffer, offset, Math.min(length, 1000));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.index;
+
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionCondition;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ExtensionScanCacheTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionScanCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        Map<String, List<ExtensionIndexEntry>> entries = new HashMap<>();
+        entries.put("io.github.photowey.TestSPI", Arrays.asList(
+                new ExtensionIndexEntry("io.github.photowey.TestSPI", "default", 0, Scoped.SINGLETON, "io.github.photowey.DefaultTestSPI"),
+                new ExtensionIndexEntry("io.github.photowey.TestSPI", "helloworld", 2, Scoped.PROTOTYPE, "io.github.photowey.HelloWorldTestSPI",
+                        ExtensionCondition.of(Collections.singletonList("web"), Collections.emptyList(),
+                                Collections.singletonList("key=value"), Collections.singletonList("java.util.List")))));
+        entries.put("io.github.photowey.EmptySPI", Collections.emptyList());
+
+        Path path = this.directory.resolve("extensions.cache");
+        ExtensionScanCache.write(path, "fingerprint", entries);
+
+        Assertions.assertEquals(entries, ExtensionScanCache.read(path, "fingerprint"));
+        Assertions.assertNull(ExtensionScanCache.read(path, "other"));
+        Assertions.assertNull(ExtensionScanCache.read(this.directory.resolve("missing.cache"), "fingerprint"));
+
+        Files.write(path, "corrupt".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(ExtensionScanCache.read(path, "fingerprint"));
+    }
+
+    @Test
+    public void testStoreWrittenOnFlush() {
+        System.setProperty(ExtensionProperties.CACHE_DIR, this.directory.toString());
+        try {
+            List<ExtensionIndexEntry> entries = Collections.singletonList(
+                    new ExtensionIndexEntry("io.github.photowey.FlushSPI", "flush", 0, Scoped.SINGLETON, "io.github.photowey.FlushTestSPI"));
+            ExtensionScanCache.store("io.github.photowey.FlushSPI", ClassLoader.getSystemClassLoader(), entries);
+            ExtensionScanCache.store("io.github.photowey.EmptySPI", ClassLoader.getSystemClassLoader(), Collections.emptyList());
+
+            String fingerprint = ExtensionScanCache.fingerprint(System.getProperty("java.class.path", ""));
+            Path path = this.directory.resolve("extensions-" + fingerprint + ".cache");
+            Assertions.assertFalse(Files.exists(path));
+
+            ExtensionScanCache.flush();
+            Map<String, List<ExtensionIndexEntry>> cached = ExtensionScanCache.read(path, fingerprint);
+            Assertions.assertNotNull(cached);
+            Assertions.assertEquals(entries, cached.get("io.github.photowey.FlushSPI"));
+            Assertions.assertEquals(Collections.emptyList(), cached.get("io.github.photowey.EmptySPI"));
+        } finally {
+            System.clearProperty(ExtensionProperties.CACHE_DIR);
+        }
+    }
+
+    @Test
+    public void testFingerprintTracksListingFiles() throws Exception {
+        Path listing = this.directory.resolve("META-INF/extensions/io.github.photowey.TestSPI");
+        Files.createDirectories(listing.getParent());
+        Files.write(listing, "io.github.photowey.DefaultTestSPI\n".getBytes(StandardCharsets.UTF_8));
+
+        String fingerprint = ExtensionScanCache.fingerprint(this.directory.toString());
+        Assertions.assertEquals(fingerprint, ExtensionScanCache.fingerprint(this.directory.toString()));
+
+        Files.write(listing, "io.github.photowey.HelloWorldTestSPI\n".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNotEquals(fingerprint, ExtensionScanCache.fingerprint(this.directory.toString()));
+    }
+}
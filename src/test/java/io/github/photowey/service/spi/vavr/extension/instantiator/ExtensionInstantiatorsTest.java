@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.instantiator;
+
+import io.github.photowey.service.spi.vavr.service.DefaultTestSPI;
+import io.github.photowey.service.spi.vavr.service.GreetingPrototypeTestSPI;
+import io.github.photowey.service.spi.vavr.service.PrototypeTestSPI;
+import io.github.photowey.service.spi.vavr.service.TestSPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@code ExtensionInstantiatorsTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionInstantiatorsTest {
+
+    @Test
+    public void testNoArgInstantiator() throws Throwable {
+        ExtensionInstantiator<PrototypeTestSPI> instantiator =
+                ExtensionInstantiators.create(PrototypeTestSPI.class, GreetingPrototypeTestSPI.class);
+
+        PrototypeTestSPI first = instantiator.instantiate(null);
+        PrototypeTestSPI second = instantiator.instantiate(null);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("hello:world!", first.greeting());
+    }
+
+    @Test
+    public void testArgsInstantiator() throws Throwable {
+        ExtensionInstantiator<PrototypeTestSPI> instantiator = ExtensionInstantiators.create(
+                PrototypeTestSPI.class, GreetingPrototypeTestSPI.class, new Class<?>[]{String.class, int.class});
+
+        PrototypeTestSPI spi = instantiator.instantiate(new Object[]{"spi", 2});
+        Assertions.assertEquals("hello:spi!hello:spi!", spi.greeting());
+    }
+
+    @Test
+    public void testNotSubtype() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ExtensionInstantiators.create(TestSPI.class, GreetingPrototypeTestSPI.class));
+        Assertions.assertThrows(NoSuchMethodException.class,
+                () -> ExtensionInstantiators.create(TestSPI.class, DefaultTestSPI.class, new Class<?>[]{String.class}));
+    }
+}
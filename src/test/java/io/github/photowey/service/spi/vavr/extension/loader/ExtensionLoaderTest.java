@@ -15,11 +15,34 @@
  */
 package io.github.photowey.service.spi.vavr.extension.loader;
 
+import io.github.photowey.service.spi.vavr.core.domain.entity.ExtensionEntity;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.core.property.ExtensionProperties;
 import io.github.photowey.service.spi.vavr.extension.factory.ExtensionLoaderFactory;
-import io.github.photowey.service.spi.vavr.service.TestSPI;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndex;
+import io.github.photowey.service.spi.vavr.extension.index.ExtensionIndexEntry;
+import io.github.photowey.service.spi.vavr.service.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
 /**
  * {@code ExtensionLoaderTest}
  *
@@ -41,4 +64,372 @@ class ExtensionLoaderTest {
         TestSPI notFoundSPI = loader.load("notFoundSPI", ClassLoader.getSystemClassLoader());
         Assertions.assertNull(notFoundSPI);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLoadByHandle() {
+        ExtensionLoader<TestSPI> loader = ExtensionLoaderFactory.create(TestSPI.class);
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+
+        int handle = loader.indexOf("helloworld", classLoader);
+        Assertions.assertTrue(handle >= 0);
+        Assertions.assertSame(loader.load("helloworld", classLoader), loader.get(handle, classLoader));
+        Assertions.assertEquals(-1, loader.indexOf("notFoundSPI", classLoader));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> loader.get(-1, classLoader));
+    }
+
+    @Test
+    public void testNameTable() {
+        List<ExtensionHolder<TestSPI>> holders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            holders.add(new ExtensionHolder<>(this.entity("name" + i, "Class" + i)));
+        }
+        ExtensionHolder<TestSPI> duplicate = new ExtensionHolder<>(this.entity("name7", "Duplicate"));
+        holders.add(duplicate);
+
+        ExtensionNameTable<TestSPI> table = new ExtensionNameTable<>(holders);
+        Assertions.assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            String name = "name" + i;
+            Assertions.assertSame(table.get(name), table.get(table.indexOf(new String(name.toCharArray()))));
+        }
+        Assertions.assertSame(duplicate, table.get("name7"));
+        Assertions.assertNull(table.get("name1000"));
+        Assertions.assertEquals(ExtensionNameTable.NOT_FOUND, table.indexOf(null));
+    }
+
+    @Test
+    public void testSingletonConstructedExactlyOnce() throws Exception {
+        ExtensionLoader<ConcurrentTestSPI> loader = ExtensionLoaderFactory.create(ConcurrentTestSPI.class);
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        // Shared with the virtual thread race: start over from an uncreated singleton.
+        loader.release(classLoader);
+        CountingConcurrentTestSPI.CONSTRUCTED.set(0);
+
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ConcurrentTestSPI>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return loader.load("counting", classLoader);
+                }));
+            }
+            start.countDown();
+
+            Set<ConcurrentTestSPI> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<ConcurrentTestSPI> future : futures) {
+                instances.add(future.get(10, TimeUnit.SECONDS));
+            }
+
+            Assertions.assertEquals(1, instances.size());
+            Assertions.assertEquals(1, CountingConcurrentTestSPI.CONSTRUCTED.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSlowInitDoesNotBlockUnrelatedExtensions() throws Exception {
+        ExtensionLoader<ConcurrentTestSPI> loader = ExtensionLoaderFactory.create(ConcurrentTestSPI.class);
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        // Shared with the asynchronous creation: start over from uncreated singletons.
+        loader.release(classLoader);
+        BlockingConcurrentTestSPI.reset();
+        IndependentConcurrentTestSPI.CONSTRUCTED.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ConcurrentTestSPI> blocking = executor.submit(() -> loader.load("blocking", classLoader));
+            Assertions.assertTrue(BlockingConcurrentTestSPI.awaitInitStarted());
+
+            // Would time out if singleton creation still shared one lock.
+            ConcurrentTestSPI independent = executor.submit(() -> loader.load("independent", classLoader)).get(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(independent);
+            Assertions.assertEquals(1, IndependentConcurrentTestSPI.CONSTRUCTED.get());
+
+            BlockingConcurrentTestSPI.releaseInit();
+            Assertions.assertNotNull(blocking.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, BlockingConcurrentTestSPI.CONSTRUCTED.get());
+        } finally {
+            BlockingConcurrentTestSPI.releaseInit();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLazyLoading() {
+        System.setProperty(ExtensionProperties.LAZY_ENABLED, "true");
+        try {
+            ExtensionLoader<LazyTestSPI> loader = ExtensionLoaderFactory.create(LazyTestSPI.class);
+            ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+
+            LazyTestSPI first = loader.load("first", classLoader);
+            Assertions.assertEquals("first", first.name());
+            Assertions.assertTrue(LazyTestSPI.INITIALIZED.contains("first"));
+            Assertions.assertFalse(LazyTestSPI.INITIALIZED.contains("second"));
+
+            List<LazyTestSPI> all = loader.loads(classLoader);
+            Assertions.assertEquals(2, all.size());
+            Assertions.assertTrue(all.contains(first));
+            Assertions.assertTrue(LazyTestSPI.INITIALIZED.contains("second"));
+        } finally {
+            System.clearProperty(ExtensionProperties.LAZY_ENABLED);
+        }
+    }
+
+    @Test
+    public void testRegistryPerClassLoader() throws Exception {
+        ExtensionLoader<TestSPI> loader = ExtensionLoaderFactory.create(TestSPI.class);
+        ClassLoader parent = ClassLoader.getSystemClassLoader();
+
+        try (URLClassLoader left = new URLClassLoader(new URL[0], parent);
+             URLClassLoader right = new URLClassLoader(new URL[0], parent)) {
+            TestSPI leftSPI = loader.load("default", left);
+            TestSPI rightSPI = loader.load("default", right);
+
+            Assertions.assertNotNull(leftSPI);
+            Assertions.assertNotNull(rightSPI);
+            Assertions.assertNotSame(leftSPI, rightSPI);
+            Assertions.assertSame(leftSPI, loader.load("default", left));
+
+            loader.release(left);
+            Assertions.assertNotSame(leftSPI, loader.load("default", left));
+        }
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        ExtensionLoader<DiscoveryTestSPI> loader = ExtensionLoaderFactory.create(DiscoveryTestSPI.class);
+        Path root = Files.createTempDirectory("service-spi-reload");
+        Path listing = root.resolve("META-INF/extensions/" + DiscoveryTestSPI.class.getName());
+        Files.createDirectories(listing.getParent());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, ClassLoader.getSystemClassLoader())) {
+            this.writeListing(listing, AlphaDiscoveryTestSPI.class);
+            DiscoveryTestSPI first = loader.load("alpha", classLoader);
+            Assertions.assertNotNull(first);
+            Assertions.assertFalse(loader.reload(classLoader));
+            Assertions.assertSame(first, loader.load("alpha", classLoader));
+
+            this.writeListing(listing, AlphaDiscoveryTestSPI.class, BetaDiscoveryTestSPI.class);
+            Assertions.assertTrue(loader.reload(classLoader));
+            Assertions.assertSame(first, loader.load("alpha", classLoader));
+            DiscoveryTestSPI second = loader.load("beta", classLoader);
+            Assertions.assertNotNull(second);
+
+            this.writeListing(listing, BetaDiscoveryTestSPI.class);
+            Assertions.assertTrue(loader.reload(classLoader));
+            Assertions.assertNull(loader.load("alpha", classLoader));
+            Assertions.assertSame(second, loader.load("beta", classLoader));
+            Assertions.assertTrue(DiscoveryTestSPI.STOPPED.contains(first));
+            Assertions.assertFalse(DiscoveryTestSPI.STOPPED.contains(second));
+
+            loader.release(classLoader);
+        } finally {
+            Files.deleteIfExists(listing);
+            Files.deleteIfExists(listing.getParent());
+            Files.deleteIfExists(listing.getParent().getParent());
+            Files.deleteIfExists(root);
+        }
+    }
+
+    @Test
+    public void testParallelDiscoveryMatchesSerial() throws Exception {
+        Path root = Files.createTempDirectory("service-spi-discovery");
+        String[][] listings = {
+                {DeltaDiscoveryTestSPI.class.getName(), "io.github.photowey.service.spi.vavr.service.MissingDiscoveryTestSPI"},
+                {},
+                {"gamma = " + GammaDiscoveryTestSPI.class.getName()},
+                {AlphaDiscoveryTestSPI.class.getName(), DeltaDiscoveryTestSPI.class.getName()},
+                {BetaDiscoveryTestSPI.class.getName()},
+                {"not a class name", BetaDiscoveryTestSPI.class.getName()},
+                {GammaDiscoveryTestSPI.class.getName()},
+                {AlphaDiscoveryTestSPI.class.getName()},
+        };
+
+        List<URL> roots = new ArrayList<>();
+        for (int i = 0; i < listings.length; i++) {
+            Path listing = root.resolve("root-" + i).resolve("META-INF/extensions/" + DiscoveryTestSPI.class.getName());
+            Files.createDirectories(listing.getParent());
+            Files.write(listing, String.join("\n", listings[i]).getBytes(StandardCharsets.UTF_8));
+            roots.add(root.resolve("root-" + i).toUri().toURL());
+        }
+
+        try {
+            List<String> expected = Arrays.asList(
+                    "delta=" + DeltaDiscoveryTestSPI.class.getName(),
+                    "gamma=" + GammaDiscoveryTestSPI.class.getName(),
+                    "beta=" + BetaDiscoveryTestSPI.class.getName(),
+                    "alpha=" + AlphaDiscoveryTestSPI.class.getName());
+            for (String bulk : new String[]{"false", "true"}) {
+                for (String parallelism : new String[]{"1", "4", "16"}) {
+                    Assertions.assertEquals(expected, this.discover(roots, parallelism, bulk), "parallelism=" + parallelism + ", bulk=" + bulk);
+                }
+            }
+        } finally {
+            System.clearProperty(ExtensionProperties.DISCOVERY_PARALLELISM);
+            System.clearProperty(ExtensionProperties.BULK_ENABLED);
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testIndexFallbackMergesUnindexedListings() throws Exception {
+        Path root = Files.createTempDirectory("service-spi-index-merge");
+        Path indexed = root.resolve("indexed");
+        Path index = indexed.resolve("META-INF/extensions.index");
+        Files.createDirectories(index.getParent());
+        try (Writer writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            ExtensionIndex.write(writer, Collections.singletonList(new ExtensionIndexEntry(
+                    DiscoveryTestSPI.class.getName(), "alpha", 1, Scoped.SINGLETON, AlphaDiscoveryTestSPI.class.getName())));
+        }
+        Path listing = indexed.resolve("META-INF/extensions/" + DiscoveryTestSPI.class.getName());
+        Files.createDirectories(listing.getParent());
+        this.writeListing(listing, AlphaDiscoveryTestSPI.class);
+
+        Path unindexed = root.resolve("unindexed").resolve("META-INF/extensions/" + DiscoveryTestSPI.class.getName());
+        Files.createDirectories(unindexed.getParent());
+        this.writeListing(unindexed, BetaDiscoveryTestSPI.class, AlphaDiscoveryTestSPI.class);
+
+        URL[] roots = {indexed.toUri().toURL(), root.resolve("unindexed").toUri().toURL()};
+        ExtensionLoader<DiscoveryTestSPI> loader = ExtensionLoaderFactory.create(DiscoveryTestSPI.class);
+        try {
+            // Index only by default: the unindexed listing is not scanned.
+            try (URLClassLoader classLoader = new URLClassLoader(roots, ClassLoader.getSystemClassLoader())) {
+                List<DiscoveryTestSPI> extensions = loader.loads(classLoader);
+                Assertions.assertEquals(ExtensionProperties.indexEnabled() ? 1 : 2, extensions.size());
+                Assertions.assertTrue(extensions.get(extensions.size() - 1) instanceof AlphaDiscoveryTestSPI);
+                loader.release(classLoader);
+            }
+
+            System.setProperty(ExtensionProperties.INDEX_FALLBACK, "true");
+            try (URLClassLoader classLoader = new URLClassLoader(roots, ClassLoader.getSystemClassLoader())) {
+                List<DiscoveryTestSPI> extensions = loader.loads(classLoader);
+                Assertions.assertEquals(2, extensions.size());
+                Assertions.assertTrue(extensions.get(0) instanceof BetaDiscoveryTestSPI);
+                Assertions.assertTrue(extensions.get(1) instanceof AlphaDiscoveryTestSPI);
+                loader.release(classLoader);
+            }
+        } finally {
+            System.clearProperty(ExtensionProperties.INDEX_FALLBACK);
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testReleasedClassLoaderCollectable() throws Exception {
+        ExtensionLoader<TestSPI> loader = ExtensionLoaderFactory.create(TestSPI.class);
+        WeakReference<ClassLoader> reference = this.loadThroughDiscardedClassLoader(loader);
+
+        for (int i = 0; i < 50 && null != reference.get(); i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+
+        Assertions.assertNull(reference.get());
+    }
+
+    @Test
+    public void testPluginClassLoaderCollectable() throws Exception {
+        Path root = Files.createTempDirectory("service-spi-plugin");
+        try {
+            Path source = root.resolve("src/demo/PluginTestSPI.java");
+            Files.createDirectories(source.getParent());
+            Files.write(source, ("package demo;\n"
+                    + "@io.github.photowey.service.spi.vavr.core.annotation.SPI(\"plugin\")\n"
+                    + "public class PluginTestSPI implements " + TestSPI.class.getName() + " {\n"
+                    + "    public void init() { }\n"
+                    + "    public String sayHello() { return \"plugin\"; }\n"
+                    + "}\n").getBytes(StandardCharsets.UTF_8));
+            Path classes = Files.createDirectories(root.resolve("classes"));
+            int status = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-proc:none",
+                    "-classpath", System.getProperty("java.class.path"), "-d", classes.toString(), source.toString());
+            Assertions.assertEquals(0, status);
+            Path listing = classes.resolve("META-INF/extensions/" + TestSPI.class.getName());
+            Files.createDirectories(listing.getParent());
+            Files.write(listing, "demo.PluginTestSPI\n".getBytes(StandardCharsets.UTF_8));
+            // As built with the processor: the plugin ships its own index.
+            try (Writer writer = Files.newBufferedWriter(classes.resolve("META-INF/extensions.index"), StandardCharsets.UTF_8)) {
+                ExtensionIndex.write(writer, Collections.singletonList(new ExtensionIndexEntry(
+                        TestSPI.class.getName(), "plugin", 0, Scoped.SINGLETON, "demo.PluginTestSPI")));
+            }
+
+            // Not released: the singleton, of a class defined by the plugin loader, must not keep that loader reachable.
+            ExtensionLoader<TestSPI> loader = ExtensionLoaderFactory.create(TestSPI.class);
+            WeakReference<ClassLoader> reference = this.loadPlugin(loader, classes.toUri().toURL());
+
+            for (int i = 0; i < 50 && null != reference.get(); i++) {
+                System.gc();
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+
+            Assertions.assertNull(reference.get());
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private WeakReference<ClassLoader> loadPlugin(final ExtensionLoader<TestSPI> loader, final URL root) throws Exception {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root}, ClassLoader.getSystemClassLoader())) {
+            TestSPI plugin = loader.load("plugin", classLoader);
+            Assertions.assertSame(classLoader, plugin.getClass().getClassLoader());
+            Assertions.assertSame(plugin, loader.load("plugin", classLoader));
+
+            return new WeakReference<>(classLoader);
+        }
+    }
+
+    private WeakReference<ClassLoader> loadThroughDiscardedClassLoader(final ExtensionLoader<TestSPI> loader) throws Exception {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[0], ClassLoader.getSystemClassLoader())) {
+            Assertions.assertNotNull(loader.load("helloworld", classLoader));
+
+            return new WeakReference<>(classLoader);
+        }
+    }
+
+    /**
+     * @return {@code name=className} of every extension, in {@code loads()} order, as scanned through a fresh {@code ClassLoader}
+     */
+    private List<String> discover(final List<URL> roots, final String parallelism, final String bulk) throws IOException {
+        System.setProperty(ExtensionProperties.DISCOVERY_PARALLELISM, parallelism);
+        System.setProperty(ExtensionProperties.BULK_ENABLED, bulk);
+
+        ExtensionLoader<DiscoveryTestSPI> loader = ExtensionLoaderFactory.create(DiscoveryTestSPI.class);
+        try (URLClassLoader classLoader = new URLClassLoader(roots.toArray(new URL[0]), ClassLoader.getSystemClassLoader())) {
+            List<String> extensions = new ArrayList<>();
+            for (DiscoveryTestSPI extension : loader.loads(classLoader)) {
+                for (String name : new String[]{"alpha", "beta", "gamma", "delta"}) {
+                    if (loader.load(name, classLoader) == extension) {
+                        extensions.add(name + "=" + extension.getClass().getName());
+                    }
+                }
+            }
+            loader.release(classLoader);
+
+            return extensions;
+        }
+    }
+
+    private ExtensionEntity entity(final String name, final String className) {
+        return ExtensionEntity.builder().name(name).order(0).scope(Scoped.SINGLETON).className(className).build();
+    }
+
+    private void writeListing(final Path listing, final Class<?>... extensions) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Class<?> extension : extensions) {
+            content.append(extension.getName()).append(System.lineSeparator());
+        }
+
+        long previous = listing.toFile().lastModified();
+        Files.write(listing, content.toString().getBytes(StandardCharsets.UTF_8));
+        listing.toFile().setLastModified(Math.max(System.currentTimeMillis(), previous + 2000));
+    }
+}
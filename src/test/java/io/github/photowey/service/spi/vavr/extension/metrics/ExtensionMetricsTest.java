@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.metrics;
+
+import io.github.photowey.service.spi.vavr.extension.factory.ExtensionFactory;
+import io.github.photowey.service.spi.vavr.service.PrototypeTestSPI;
+import io.github.photowey.service.spi.vavr.service.RecordingExtensionMetrics;
+import io.github.photowey.service.spi.vavr.service.TestSPI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@code ExtensionMetricsTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionMetricsTest {
+
+    @Test
+    public void testSingletonMetrics() {
+        ExtensionFactory.create(TestSPI.class);
+        long hits = RecordingExtensionMetrics.count("cacheHit", TestSPI.class);
+        ExtensionFactory.create(TestSPI.class);
+
+        Assertions.assertEquals(1, RecordingExtensionMetrics.count("scanned", TestSPI.class));
+        Assertions.assertTrue(RecordingExtensionMetrics.count("classLoaded", TestSPI.class) >= 1);
+        Assertions.assertEquals(1, RecordingExtensionMetrics.count("cacheMiss", TestSPI.class));
+        Assertions.assertEquals(hits + 1, RecordingExtensionMetrics.count("cacheHit", TestSPI.class));
+    }
+
+    @Test
+    public void testPrototypeMetrics() {
+        long instantiated = RecordingExtensionMetrics.count("instantiated", PrototypeTestSPI.class);
+        ExtensionFactory.create(PrototypeTestSPI.class, "greeting");
+        ExtensionFactory.create(PrototypeTestSPI.class, "greeting");
+
+        Assertions.assertEquals(instantiated + 2, RecordingExtensionMetrics.count("instantiated", PrototypeTestSPI.class));
+        Assertions.assertEquals(0, RecordingExtensionMetrics.count("cacheMiss", PrototypeTestSPI.class));
+    }
+}
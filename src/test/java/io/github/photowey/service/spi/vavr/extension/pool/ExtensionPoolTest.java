@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.extension.pool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code ExtensionPoolTest}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+class ExtensionPoolTest {
+
+    @Test
+    public void testReuseAndEvictBeyondCapacity() {
+        AtomicInteger created = new AtomicInteger();
+        List<Object> evicted = new ArrayList<>();
+        ExtensionPool<Object> pool = new ExtensionPool<>(2, () -> "instance-" + created.incrementAndGet(), evicted::add);
+
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+        Object third = pool.acquire();
+        Assertions.assertEquals(3, created.get());
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        Assertions.assertEquals(2, pool.idle());
+        Assertions.assertEquals(1, evicted.size());
+
+        try (ExtensionLease<Object> lease = pool.lease()) {
+            Assertions.assertNotNull(lease.get());
+            Assertions.assertEquals(1, pool.idle());
+        }
+        Assertions.assertEquals(3, created.get());
+        Assertions.assertEquals(2, pool.idle());
+
+        pool.close();
+        Assertions.assertEquals(0, pool.idle());
+        Assertions.assertEquals(3, evicted.size());
+
+        pool.release(pool.acquire());
+        Assertions.assertEquals(4, evicted.size());
+    }
+
+    @Test
+    public void testLeaseReleasedOnce() {
+        List<Object> evicted = new ArrayList<>();
+        ExtensionPool<Object> pool = new ExtensionPool<>(1, Object::new, evicted::add);
+
+        ExtensionLease<Object> lease = pool.lease();
+        lease.close();
+        lease.close();
+        Assertions.assertEquals(1, pool.idle());
+        Assertions.assertTrue(evicted.isEmpty());
+        Assertions.assertThrows(IllegalStateException.class, lease::get);
+    }
+
+    @Test
+    public void testConcurrentLeasesNeverShareAnInstance() throws Exception {
+        int threads = 8;
+        List<Object> evicted = new CopyOnWriteArrayList<>();
+        ExtensionPool<AtomicInteger> pool = new ExtensionPool<>(4, AtomicInteger::new, evicted::add);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    boolean exclusive = true;
+                    for (int j = 0; j < 10_000; j++) {
+                        try (ExtensionLease<AtomicInteger> lease = pool.lease()) {
+                            exclusive &= lease.get().incrementAndGet() == 1;
+                            exclusive &= lease.get().decrementAndGet() == 0;
+                        }
+                    }
+                    return exclusive;
+                }));
+            }
+            start.countDown();
+
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get(30, TimeUnit.SECONDS));
+            }
+            Assertions.assertTrue(pool.idle() <= pool.capacity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
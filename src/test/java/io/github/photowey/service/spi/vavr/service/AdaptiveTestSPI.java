@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.Adaptive;
+
+/**
+ * {@code AdaptiveTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+public interface AdaptiveTestSPI {
+
+    @Adaptive
+    String greet(String language, String who);
+
+    @Adaptive(value = 1, defaultName = "chinese")
+    String greetIn(String who, Object language);
+
+    /**
+     * Dispatched through the handles of the {@link Language} constants, resolved once.
+     */
+    @Adaptive
+    String greetBy(Language language, String who);
+
+    /**
+     * Not {@code @Adaptive}: runs on the proxy itself, whose {@code greet} calls are dispatched.
+     */
+    default String greetAll(final String who) {
+        return this.greet("english", who) + " / " + this.greet("chinese", who);
+    }
+
+    enum Language {
+
+        ENGLISH, CHINESE, FRENCH;
+
+        @Override
+        public String toString() {
+            return this.name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code BlockingConcurrentTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "blocking")
+public class BlockingConcurrentTestSPI implements ConcurrentTestSPI {
+
+    public static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+    private static volatile CountDownLatch initStarted = new CountDownLatch(1);
+    private static volatile CountDownLatch initReleased = new CountDownLatch(1);
+
+    public BlockingConcurrentTestSPI() {
+        CONSTRUCTED.incrementAndGet();
+    }
+
+    /**
+     * Arms the fixture for the next creation; the singleton itself must have been released beforehand.
+     */
+    public static void reset() {
+        CONSTRUCTED.set(0);
+        initStarted = new CountDownLatch(1);
+        initReleased = new CountDownLatch(1);
+    }
+
+    public static boolean awaitInitStarted() throws InterruptedException {
+        return initStarted.await(10, TimeUnit.SECONDS);
+    }
+
+    public static void releaseInit() {
+        initReleased.countDown();
+    }
+
+    @Override
+    public int constructed() {
+        return CONSTRUCTED.get();
+    }
+
+    @Override
+    public void init() {
+        CountDownLatch released = initReleased;
+        initStarted.countDown();
+        try {
+            released.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
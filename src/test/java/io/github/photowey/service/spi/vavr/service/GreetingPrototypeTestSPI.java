@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+
+/**
+ * {@code GreetingPrototypeTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "greeting", scope = Scoped.PROTOTYPE)
+public class GreetingPrototypeTestSPI implements PrototypeTestSPI {
+
+    private final String name;
+    private final int times;
+
+    public GreetingPrototypeTestSPI() {
+        this("world");
+    }
+
+    public GreetingPrototypeTestSPI(final String name) {
+        this(name, 1);
+    }
+
+    public GreetingPrototypeTestSPI(final String name, final int times) {
+        this.name = name;
+        this.times = times;
+    }
+
+    @Override
+    public String greeting() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.times; i++) {
+            builder.append("hello:").append(this.name).append("!");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.Inject;
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code LeftRaceCycleTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "left", order = 0)
+public class LeftRaceCycleTestSPI implements RaceCycleTestSPI {
+
+    private static final CountDownLatch CONSTRUCTED = new CountDownLatch(2);
+
+    public LeftRaceCycleTestSPI() {
+        awaitBothConstructed();
+    }
+
+    /**
+     * Holds the first construction of each side until the other side is being constructed too, so that each creating
+     * thread holds the singleton the other one injects.
+     */
+    static void awaitBothConstructed() {
+        CONSTRUCTED.countDown();
+        try {
+            CONSTRUCTED.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Inject("right")
+    public void setRight(final RaceCycleTestSPI right) {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.LifeCycle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code PooledScopedTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "pooled", scope = Scoped.POOLED, poolSize = 2)
+public class PooledScopedTestSPI implements ScopedTestSPI, LifeCycle {
+
+    public static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+    public static final AtomicInteger STOPPED = new AtomicInteger();
+
+    public PooledScopedTestSPI() {
+        CONSTRUCTED.incrementAndGet();
+    }
+
+    @Override
+    public void stop() {
+        STOPPED.incrementAndGet();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.extension.metrics.ExtensionMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code RecordingExtensionMetrics}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "recording")
+public class RecordingExtensionMetrics implements ExtensionMetrics {
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+
+    public static long count(final String event, final Class<?> targetClass) {
+        AtomicLong counter = COUNTERS.get(event + ":" + targetClass.getName());
+        return null == counter ? 0 : counter.get();
+    }
+
+    @Override
+    public void scanned(final Class<?> targetClass, final int urls, final long durationNanos) {
+        this.increment("scanned", targetClass);
+    }
+
+    @Override
+    public void classLoaded(final Class<?> targetClass, final String className, final long durationNanos) {
+        this.increment("classLoaded", targetClass);
+    }
+
+    @Override
+    public void instantiated(final Class<?> targetClass, final String name, final long durationNanos) {
+        this.increment("instantiated", targetClass);
+    }
+
+    @Override
+    public void cacheHit(final Class<?> targetClass, final String name) {
+        this.increment("cacheHit", targetClass);
+    }
+
+    @Override
+    public void cacheMiss(final Class<?> targetClass, final String name) {
+        this.increment("cacheMiss", targetClass);
+    }
+
+    @Override
+    public void initialized(final Class<?> targetClass, final String name, final long durationNanos) {
+        this.increment("initialized", targetClass);
+    }
+
+    @Override
+    public void stopped(final Class<?> targetClass, final String name, final long durationNanos) {
+        this.increment("stopped", targetClass);
+    }
+
+    private void increment(final String event, final Class<?> targetClass) {
+        COUNTERS.computeIfAbsent(event + ":" + targetClass.getName(), key -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.extension.scope.ExtensionScope;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@code RequestExtensionScope}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "request")
+public class RequestExtensionScope implements ExtensionScope {
+
+    private static final ThreadLocal<Map<String, Object>> CURRENT = new ThreadLocal<>();
+
+    public static void begin() {
+        CURRENT.set(new IdentityHashMap<>());
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String id, final Supplier<T> factory) {
+        Map<String, Object> request = CURRENT.get();
+        if (null == request) {
+            throw new IllegalStateException("No request in progress");
+        }
+
+        return (T) request.computeIfAbsent(id, key -> factory.get());
+    }
+}
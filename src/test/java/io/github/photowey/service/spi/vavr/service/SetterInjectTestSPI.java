@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.photowey.service.spi.vavr.service;
+
+import io.github.photowey.service.spi.vavr.core.annotation.Inject;
+import io.github.photowey.service.spi.vavr.core.annotation.SPI;
+import io.github.photowey.service.spi.vavr.core.enums.Scoped;
+import io.github.photowey.service.spi.vavr.extension.lifecycle.InitializeLifeCycle;
+
+/**
+ * {@code SetterInjectTestSPI}
+ *
+ * @author photowey
+ * @date 2026/10/18
+ * @since 1.0.0
+ */
+@SPI(value = "setter", order = 1, scope = Scoped.PROTOTYPE)
+public class SetterInjectTestSPI implements InjectTestSPI, InitializeLifeCycle {
+
+    private InjectTestSPI delegate;
+    private boolean injectedBeforeInit;
+
+    @Inject("constructor")
+    public void setDelegate(final InjectTestSPI delegate) {
+        this.delegate = delegate;
+    }
+
+    public InjectTestSPI getDelegate() {
+        return this.delegate;
+    }
+
+    public boolean isInjectedBeforeInit() {
+        return this.injectedBeforeInit;
+    }
+
+    @Override
+    public void init() {
+        this.injectedBeforeInit = null != this.delegate;
+    }
+
+    @Override
+    public String greet() {
+        return this.delegate.greet();
+    }
+}